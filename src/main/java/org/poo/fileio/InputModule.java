@@ -0,0 +1,279 @@
+package org.poo.fileio;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Jackson module replacing the reflective bean deserialization of the input classes with
+ * hand-written streaming readers. Every reader switches on the known field names and calls
+ * the setters directly. Lists of decks and cards are allocated with their final size when
+ * {@code nrDecks} and {@code nrCardsInDeck} precede them. The readers are as strict as the
+ * default reflective ones: an unknown field fails, and so does a value of the wrong shape,
+ * while integers are still read from floating-point numbers (truncated), from strings, and
+ * from {@code null} or the empty string (as 0).
+ */
+public final class InputModule extends SimpleModule {
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_CAPACITY = 10;
+
+    /**
+     * Creates the module, registering a deserializer for every input class.
+     */
+    public InputModule() {
+        super("GwentStoneInput");
+        addDeserializer(Input.class, new Deserializer<>(InputModule::readInput));
+        addDeserializer(DecksInput.class, new Deserializer<>(InputModule::readDecks));
+        addDeserializer(CardInput.class, new Deserializer<>(InputModule::readCard));
+        addDeserializer(GameInput.class, new Deserializer<>(InputModule::readGame));
+        addDeserializer(StartGameInput.class, new Deserializer<>(InputModule::readStartGame));
+        addDeserializer(ActionsInput.class, new Deserializer<>(InputModule::readAction));
+        addDeserializer(Coordinates.class, new Deserializer<>(InputModule::readCoordinates));
+    }
+
+    /**
+     * Reads a value starting at the current token of the parser.
+     */
+    private interface Reader<T> {
+        T read(JsonParser parser) throws IOException;
+    }
+
+    /**
+     * Adapts a {@link Reader} to the deserializer interface of Jackson.
+     */
+    private static final class Deserializer<T> extends JsonDeserializer<T> {
+        private final Reader<T> reader;
+
+        Deserializer(final Reader<T> reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public T deserialize(final JsonParser parser, final DeserializationContext context)
+                throws IOException {
+            return reader.read(parser);
+        }
+    }
+
+    private static Input readInput(final JsonParser parser) throws IOException {
+        Input input = new Input();
+        for (String field = firstField(parser); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "playerOneDecks" -> input.setPlayerOneDecks(readValue(parser,
+                        InputModule::readDecks));
+                case "playerTwoDecks" -> input.setPlayerTwoDecks(readValue(parser,
+                        InputModule::readDecks));
+                case "games" -> input.setGames(readList(parser, InputModule::readGame,
+                        DEFAULT_CAPACITY));
+                default -> throw unknownField(parser, input, field);
+            }
+        }
+        return input;
+    }
+
+    private static DecksInput readDecks(final JsonParser parser) throws IOException {
+        DecksInput decks = new DecksInput();
+        int nrDecks = DEFAULT_CAPACITY;
+        int nrCardsInDeck = DEFAULT_CAPACITY;
+        for (String field = firstField(parser); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "nrCardsInDeck" -> {
+                    nrCardsInDeck = readInt(parser);
+                    decks.setNrCardsInDeck(nrCardsInDeck);
+                }
+                case "nrDecks" -> {
+                    nrDecks = readInt(parser);
+                    decks.setNrDecks(nrDecks);
+                }
+                case "decks" -> {
+                    int deckSize = nrCardsInDeck;
+                    decks.setDecks(readList(parser,
+                            deck -> readList(deck, InputModule::readCard, deckSize), nrDecks));
+                }
+                default -> throw unknownField(parser, decks, field);
+            }
+        }
+        return decks;
+    }
+
+    private static CardInput readCard(final JsonParser parser) throws IOException {
+        CardInput card = new CardInput();
+        for (String field = firstField(parser); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "mana" -> card.setMana(readInt(parser));
+                case "attackDamage" -> card.setAttackDamage(readInt(parser));
+                case "health" -> card.setHealth(readInt(parser));
+                case "description" -> card.setDescription(readString(parser));
+                case "colors" -> card.setColors(readList(parser, InputModule::readString,
+                        DEFAULT_CAPACITY));
+                case "name" -> card.setName(readString(parser));
+                default -> throw unknownField(parser, card, field);
+            }
+        }
+        return card;
+    }
+
+    private static GameInput readGame(final JsonParser parser) throws IOException {
+        GameInput game = new GameInput();
+        for (String field = firstField(parser); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "startGame" -> game.setStartGame(readValue(parser,
+                        InputModule::readStartGame));
+                case "actions" -> game.setActions(readList(parser, InputModule::readAction,
+                        DEFAULT_CAPACITY));
+                default -> throw unknownField(parser, game, field);
+            }
+        }
+        return game;
+    }
+
+    private static StartGameInput readStartGame(final JsonParser parser) throws IOException {
+        StartGameInput startGame = new StartGameInput();
+        for (String field = firstField(parser); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "playerOneDeckIdx" -> startGame.setPlayerOneDeckIdx(readInt(parser));
+                case "playerTwoDeckIdx" -> startGame.setPlayerTwoDeckIdx(readInt(parser));
+                case "shuffleSeed" -> startGame.setShuffleSeed(readInt(parser));
+                case "playerOneHero" -> startGame.setPlayerOneHero(readValue(parser,
+                        InputModule::readCard));
+                case "playerTwoHero" -> startGame.setPlayerTwoHero(readValue(parser,
+                        InputModule::readCard));
+                case "startingPlayer" -> startGame.setStartingPlayer(readInt(parser));
+                default -> throw unknownField(parser, startGame, field);
+            }
+        }
+        return startGame;
+    }
+
+    private static ActionsInput readAction(final JsonParser parser) throws IOException {
+        ActionsInput action = new ActionsInput();
+        for (String field = firstField(parser); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "command" -> action.setCommand(readString(parser));
+                case "handIdx" -> action.setHandIdx(readInt(parser));
+                case "cardAttacker" -> action.setCardAttacker(readValue(parser,
+                        InputModule::readCoordinates));
+                case "cardAttacked" -> action.setCardAttacked(readValue(parser,
+                        InputModule::readCoordinates));
+                case "affectedRow" -> action.setAffectedRow(readInt(parser));
+                case "playerIdx" -> action.setPlayerIdx(readInt(parser));
+                case "x" -> action.setX(readInt(parser));
+                case "y" -> action.setY(readInt(parser));
+                default -> throw unknownField(parser, action, field);
+            }
+        }
+        return action;
+    }
+
+    private static Coordinates readCoordinates(final JsonParser parser) throws IOException {
+        Coordinates coordinates = new Coordinates();
+        for (String field = firstField(parser); field != null; field = parser.nextFieldName()) {
+            parser.nextToken();
+            switch (field) {
+                case "x" -> coordinates.setX(readInt(parser));
+                case "y" -> coordinates.setY(readInt(parser));
+                default -> throw unknownField(parser, coordinates, field);
+            }
+        }
+        return coordinates;
+    }
+
+    /**
+     * Gets the name of the first field of the object the parser is on, or null if the
+     * object is empty. Jackson may hand over an object either at its start or at its first
+     * field.
+     */
+    private static String firstField(final JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            return parser.nextFieldName();
+        } else if (token == JsonToken.FIELD_NAME) {
+            return parser.currentName();
+        } else if (token == JsonToken.END_OBJECT) {
+            return null;
+        }
+        throw MismatchedInputException.from(parser, Object.class,
+                "Expected an object, found " + token);
+    }
+
+    private static UnrecognizedPropertyException unknownField(final JsonParser parser,
+                                                              final Object bean,
+                                                              final String field) {
+        return UnrecognizedPropertyException.from(parser, bean, field, null);
+    }
+
+    /**
+     * Reads an integer, converting it from the same values as Jackson's default coercions.
+     */
+    private static int readInt(final JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getIntValue();
+        } else if (token == JsonToken.VALUE_NULL) {
+            return 0;
+        } else if (token == JsonToken.VALUE_STRING) {
+            String text = parser.getText().trim();
+            if (text.isEmpty()) {
+                return 0;
+            }
+            try {
+                return Integer.parseInt(text);
+            } catch (NumberFormatException e) {
+                throw InvalidFormatException.from(parser, "Not a valid int: " + text, text,
+                        int.class);
+            }
+        }
+        throw MismatchedInputException.from(parser, int.class,
+                "Expected an int, found " + token);
+    }
+
+    /**
+     * Reads a string from any scalar value, or null.
+     */
+    private static String readString(final JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (!token.isScalarValue()) {
+            throw MismatchedInputException.from(parser, String.class,
+                    "Expected a string, found " + token);
+        }
+        return parser.getValueAsString();
+    }
+
+    private static <T> T readValue(final JsonParser parser, final Reader<T> reader)
+            throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        return reader.read(parser);
+    }
+
+    private static <T> ArrayList<T> readList(final JsonParser parser, final Reader<T> reader,
+                                             final int capacity) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        } else if (token != JsonToken.START_ARRAY) {
+            throw MismatchedInputException.from(parser, ArrayList.class,
+                    "Expected an array, found " + token);
+        }
+        ArrayList<T> list = new ArrayList<>(capacity);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            list.add(readValue(parser, reader));
+        }
+        return list;
+    }
+}
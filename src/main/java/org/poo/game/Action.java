@@ -38,6 +38,15 @@ public class Action {
         y = action.getY();
     }
 
+    /**
+     * Gets the command of the action.
+     *
+     * @return the command name
+     */
+    public String getCommand() {
+        return command;
+    }
+
     /**
      * Executes the action and returns a JSON representation of the result.
      *
@@ -0,0 +1,316 @@
+package org.poo.game;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.fileio.Coordinates;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Logs every executed action in a columnar layout: one file per column, each holding one
+ * little-endian primitive per action, its type given by the file extension ({@code .int},
+ * {@code .short} or {@code .byte}). Commands, outcomes and card names are stored as indices
+ * in a string dictionary, written to {@code dictionary.txt} with one string per line, in
+ * which backslashes, line feeds and carriage returns are escaped as {@code \\}, {@code \n}
+ * and {@code \r}. Indices are shorts, so the dictionary holds at most 32768 strings; logging
+ * an action that needs more fails. Operands that do not apply to a command, and a missing
+ * acting card, are stored as -1; the state columns describe the game after the action.
+ *
+ * <p>Enabled by setting the {@code gwentstone.actionlog} system property to {@code true}.
+ * The columns are written to the directory given by the {@code gwentstone.actionlogDir}
+ * system property ({@value #DEFAULT_DIR} by default). The files are written through
+ * buffered channels, all of them at once, together with the new strings of the dictionary,
+ * whenever the buffers are full and by {@link #flush()}, which {@code Main} calls after
+ * every input file; the files on disk therefore always hold whole actions. Whatever is left
+ * is written when the JVM exits. Actions of games running concurrently are serialized by a
+ * lock.
+ */
+public final class ActionLog {
+    public static final String PROPERTY = "gwentstone.actionlog";
+    public static final String DIR_PROPERTY = "gwentstone.actionlogDir";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String DICTIONARY = "dictionary.txt";
+    private static final String DEFAULT_DIR = "actionlog";
+    private static final AtomicInteger GAMES = new AtomicInteger();
+    private static ActionLog log;
+
+    private final Path dir;
+    private final HashMap<String, Integer> dictionary = new HashMap<>();
+    private final ArrayList<String> strings = new ArrayList<>();
+    private int writtenStrings;
+    private final ArrayList<Column> columns = new ArrayList<>();
+    private final Column game = column("game.int");
+    private final Column round = column("round.int");
+    private final Column turn = column("turn.int");
+    private final Column player = column("player.byte");
+    private final Column command = column("command.short");
+    private final Column outcome = column("outcome.short");
+    private final Column card = column("card.short");
+    private final Column handIdx = column("handIdx.short");
+    private final Column attackerX = column("attackerX.byte");
+    private final Column attackerY = column("attackerY.byte");
+    private final Column attackedX = column("attackedX.byte");
+    private final Column attackedY = column("attackedY.byte");
+    private final Column affectedRow = column("affectedRow.byte");
+    private final Column[] mana = {column("mana1.int"), column("mana2.int")};
+    private final Column[] heroHealth = {column("heroHealth1.int"), column("heroHealth2.int")};
+    private final Column[] rowSize = {column("rowSize0.byte"), column("rowSize1.byte"),
+        column("rowSize2.byte"), column("rowSize3.byte")};
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                synchronized (ActionLog.class) {
+                    if (log != null) {
+                        try {
+                            log.close();
+                        } catch (IOException e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            }));
+        }
+    }
+
+    /**
+     * A column file, written through a direct buffer.
+     */
+    private static final class Column {
+        private final String name;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        private FileChannel channel;
+
+        Column(final String name) {
+            this.name = name;
+        }
+
+        void putByte(final int value) {
+            buffer.put((byte) value);
+        }
+
+        void putShort(final int value) {
+            buffer.putShort((short) value);
+        }
+
+        void putInt(final int value) {
+            buffer.putInt(value);
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    private ActionLog(final Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        for (Column column : columns) {
+            column.channel = FileChannel.open(dir.resolve(column.name),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+        Files.write(dir.resolve(DICTIONARY), new byte[0]);
+    }
+
+    private Column column(final String name) {
+        Column column = new Column(name);
+        columns.add(column);
+        return column;
+    }
+
+    /**
+     * Gets the id identifying a game in the {@code game} column.
+     *
+     * @return a new game id
+     */
+    static int nextGameId() {
+        return GAMES.getAndIncrement();
+    }
+
+    /**
+     * Gets the name of the card acting in an action that is about to be executed: the
+     * placed card, the attacking card or the hero using its ability.
+     *
+     * @param game   the {@link Game} the action is executed in
+     * @param action the {@link Action} about to be executed
+     * @return the name of the acting card, or null if there is none
+     */
+    static String getActingCard(final Game game, final Action action) {
+        Player current = game.getPlayer(game.getStats().getCurrentPlayer());
+        switch (action.command) {
+            case "placeCard" -> {
+                ArrayList<Card> hand = current.getHand().getCards();
+                if (action.handIdx >= 0 && action.handIdx < hand.size()) {
+                    return hand.get(action.handIdx).getName();
+                }
+            }
+            case "cardUsesAttack", "cardUsesAbility", "useAttackHero" -> {
+                Coordinates position = action.cardAttacker;
+                if (position != null && position.getX() >= 0
+                        && position.getX() < GlobalVariables.ROWS_NUMBER) {
+                    ArrayList<Card> row = game.getBoard().getBoard().get(position.getX())
+                            .getCards();
+                    if (position.getY() >= 0 && position.getY() < row.size()) {
+                        return row.get(position.getY()).getName();
+                    }
+                }
+            }
+            case "useHeroAbility" -> {
+                return current.getHero().getName();
+            }
+            default -> {
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Appends an executed action, with the state of the game after it, to the log.
+     *
+     * @param game       the {@link Game} the action was executed in
+     * @param action     the executed {@link Action}
+     * @param playerIdx  the player who executed it
+     * @param actingCard the value returned by {@link #getActingCard} before the execution
+     * @param result     the output of the action, or null if it produced none
+     */
+    static void record(final Game game, final Action action, final int playerIdx,
+                       final String actingCard, final ObjectNode result) {
+        synchronized (ActionLog.class) {
+            try {
+                if (log == null) {
+                    log = new ActionLog(Paths.get(System.getProperty(DIR_PROPERTY,
+                            DEFAULT_DIR)));
+                }
+                log.append(game, action, playerIdx, actingCard, result);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the actions logged so far, and the strings they reference, to the files.
+     */
+    public static void flush() {
+        synchronized (ActionLog.class) {
+            if (log != null) {
+                try {
+                    log.flushColumns();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private void append(final Game logged, final Action action, final int playerIdx,
+                        final String actingCard, final ObjectNode result) throws IOException {
+        String outcomeText = "";
+        if (result != null && result.has("error")) {
+            outcomeText = result.get("error").asText();
+        } else if (result != null && result.has("gameEnded")) {
+            outcomeText = result.get("gameEnded").asText();
+        }
+        // the strings are indexed first, so that a full dictionary leaves no partial action
+        int commandIdx = indexOf(action.command);
+        int outcomeIdx = indexOf(outcomeText);
+        int cardIdx = actingCard == null ? -1 : indexOf(actingCard);
+
+        // the int columns fill first, every column has room for an action if they do
+        if (game.buffer.remaining() < Integer.BYTES) {
+            flushColumns();
+        }
+        Stats stats = logged.getStats();
+        game.putInt(logged.getLogId());
+        round.putInt(stats.getNumRound());
+        turn.putInt(stats.getNumTurn());
+        player.putByte(playerIdx);
+        command.putShort(commandIdx);
+        outcome.putShort(outcomeIdx);
+        card.putShort(cardIdx);
+
+        handIdx.putShort(action.command.equals("placeCard") ? action.handIdx : -1);
+        putCoordinates(action.cardAttacker, attackerX, attackerY);
+        putCoordinates(action.cardAttacked, attackedX, attackedY);
+        affectedRow.putByte(action.command.equals("useHeroAbility") ? action.affectedRow : -1);
+
+        for (int idx = 1; idx <= 2; idx++) {
+            Player current = logged.getPlayer(idx);
+            mana[idx - 1].putInt(current.getMana());
+            heroHealth[idx - 1].putInt(current.getHero().getHealth());
+        }
+        ArrayList<Deck> rows = logged.getBoard().getBoard();
+        for (int x = 0; x < rowSize.length; x++) {
+            rowSize[x].putByte(rows.get(x).getSize());
+        }
+    }
+
+    private static void putCoordinates(final Coordinates position, final Column x,
+                                       final Column y) {
+        x.putByte(position == null ? -1 : position.getX());
+        y.putByte(position == null ? -1 : position.getY());
+    }
+
+    private int indexOf(final String string) throws IOException {
+        Integer idx = dictionary.get(string);
+        if (idx == null) {
+            if (strings.size() > Short.MAX_VALUE) {
+                throw new IOException("The action log dictionary is full: indices are stored"
+                        + " in shorts, so it holds at most " + (Short.MAX_VALUE + 1)
+                        + " strings.");
+            }
+            idx = strings.size();
+            dictionary.put(string, idx);
+            strings.add(string);
+        }
+        return idx;
+    }
+
+    private void flushColumns() throws IOException {
+        for (Column column : columns) {
+            column.flush();
+        }
+        if (writtenStrings < strings.size()) {
+            ArrayList<String> lines = new ArrayList<>();
+            for (String string : strings.subList(writtenStrings, strings.size())) {
+                lines.add(escape(string));
+            }
+            Files.write(dir.resolve(DICTIONARY), lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.APPEND);
+            writtenStrings = strings.size();
+        }
+    }
+
+    /**
+     * Escapes a dictionary string so that it fits on one line.
+     */
+    private static String escape(final String string) {
+        return string.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private void close() throws IOException {
+        flushColumns();
+        for (Column column : columns) {
+            column.channel.close();
+        }
+    }
+}
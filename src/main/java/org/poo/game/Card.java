@@ -1,6 +1,7 @@
 package org.poo.game;
 
 import org.poo.fileio.CardInput;
+import org.poo.metrics.CardAnalytics;
 
 import java.util.ArrayList;
 
@@ -14,15 +15,24 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
  * properties and perform actions like generating a JSON representation.
  */
 public class Card {
+    /**
+     * Value of {@code frozenTurn} for a card that was never frozen.
+     */
+    protected static final int NOT_FROZEN = Integer.MIN_VALUE;
+
     protected int mana;
     protected int attackDamage;
     protected int health;
     protected String description;
     protected ArrayList<String> colors;
     protected String name;
-    protected boolean hasAttacked;
+    protected int attackedRound;
     protected boolean hasUsedAbility;
-    protected boolean isFrozen;
+    protected int frozenTurn = NOT_FROZEN;
+    private ObjectNode cardNode;
+    private ArrayNode colorsNode;
+    private int analyticsId = -1;
+    private GameView.CardView view;
 
     public Card() {
     }
@@ -42,24 +52,76 @@ public class Card {
     }
 
     /**
-     * Generates a JSON representation of the card's attributes.
+     * Generates a JSON representation of the card's attributes. The node is cached and
+     * returned again by later calls until the attack damage or health of the card changes,
+     * so callers must not modify it.
      *
      * @param mapper the {@link ObjectMapper} used to create the JSON object
      * @return an {@link ObjectNode} containing the card's attributes
      */
     public ObjectNode getCardNode(final ObjectMapper mapper) {
-        ObjectNode node = mapper.createObjectNode();
-        node.put("mana", mana);
-        node.put("attackDamage", attackDamage);
-        node.put("health", health);
-        node.put("description", description);
-        ArrayNode colorsArray = mapper.createArrayNode();
-        for (String color : colors) {
-            colorsArray.add(color);
+        if (cardNode == null) {
+            ObjectNode node = mapper.createObjectNode();
+            node.put("mana", mana);
+            node.put("attackDamage", attackDamage);
+            node.put("health", health);
+            node.put("description", description);
+            node.set("colors", getColorsNode(mapper));
+            node.put("name", name);
+            cardNode = node;
+        }
+        return cardNode;
+    }
+
+    /**
+     * Generates the JSON array of the card's colors. Colors never change, so the array is
+     * built once and shared by every representation of the card.
+     *
+     * @param mapper the {@link ObjectMapper} used to create the JSON array
+     * @return an {@link ArrayNode} containing the card's colors
+     */
+    protected ArrayNode getColorsNode(final ObjectMapper mapper) {
+        if (colorsNode == null) {
+            ArrayNode colorsArray = mapper.createArrayNode();
+            for (String color : colors) {
+                colorsArray.add(color);
+            }
+            colorsNode = colorsArray;
         }
-        node.set("colors", colorsArray);
-        node.put("name", name);
-        return node;
+        return colorsNode;
+    }
+
+    /**
+     * Drops the cached JSON representations of the card, after one of its printed
+     * attributes has changed.
+     */
+    protected void invalidateNodes() {
+        cardNode = null;
+        view = null;
+    }
+
+    /**
+     * Gets an immutable picture of the card, cached until the card changes.
+     *
+     * @return the {@link GameView.CardView} of the card
+     */
+    GameView.CardView getView() {
+        if (view == null) {
+            view = new GameView.CardView(this);
+        }
+        return view;
+    }
+
+    /**
+     * Gets the id of the card's name in the {@link CardAnalytics}, resolving it on first use.
+     *
+     * @return the analytics id of the card
+     */
+    int getAnalyticsId() {
+        if (analyticsId < 0) {
+            analyticsId = CardAnalytics.idOf(name);
+        }
+        return analyticsId;
     }
 
     /**
@@ -113,6 +175,7 @@ public class Card {
      */
     public void setAttackDamage(final int attackDamage) {
         this.attackDamage = attackDamage;
+        invalidateNodes();
     }
 
     /**
@@ -131,6 +194,7 @@ public class Card {
      */
     public void setHealth(final int health) {
         this.health = health;
+        invalidateNodes();
     }
 
     /**
@@ -152,20 +216,44 @@ public class Card {
     }
 
     /**
-     * Sets whether the card has attacked.
+     * Determines if the card has attacked in the given round. The card stores the round of
+     * its last attack, so no reset is needed when a new round starts.
+     *
+     * @param round the current round number
+     * @return {@code true} if the card has attacked this round; {@code false} otherwise
+     */
+    public boolean hasAttacked(final int round) {
+        return attackedRound == round;
+    }
+
+    /**
+     * Marks the card as having attacked in the given round.
+     *
+     * @param round the current round number
+     */
+    public void setAttackedRound(final int round) {
+        attackedRound = round;
+    }
+
+    /**
+     * Determines if the card is frozen in the given turn. A card frozen during the opponent's
+     * turn stays frozen for the whole next turn of its owner, so the card stores the turn it
+     * was frozen in and no reset is needed when a turn ends.
      *
-     * @param hasAttacked {@code true} if the card has attacked; {@code false} otherwise
+     * @param turn the number of turns ended so far in the game
+     * @return {@code true} if the card is frozen; {@code false} otherwise
      */
-    public void setHasAttacked(final boolean hasAttacked) {
-        this.hasAttacked = hasAttacked;
+    public boolean isFrozen(final int turn) {
+        return turn <= frozenTurn + 1;
     }
 
     /**
-     * Sets whether the card is frozen.
+     * Freezes the card in the given turn, until its owner's next turn ends.
      *
-     * @param isFrozen {@code true} if the card is frozen; {@code false} otherwise
+     * @param turn the number of turns ended so far in the game
      */
-    public void setIsFrozen(final boolean isFrozen) {
-        this.isFrozen = isFrozen;
+    public void freeze(final int turn) {
+        frozenTurn = turn;
+        view = null;
     }
 }
@@ -12,6 +12,7 @@ import org.poo.fileio.ActionsInput;
  * in the {@link ActionsInput}.
  */
 public class DebugAction extends Action {
+    private static final int NOT_CACHED = -1;
 
     public DebugAction(final ActionsInput action) {
         super(action);
@@ -19,7 +20,8 @@ public class DebugAction extends Action {
 
     /**
      * Executes the debug action based on the specified command and returns a JSON representation
-     * of the result.
+     * of the result. Queries rendering a whole deck, hand, hero or the board are remembered
+     * and returned again, without being rebuilt, while the rendered zone does not change.
      *
      * @param mapper the {@link ObjectMapper} used to create JSON nodes
      * @param game   the current {@link Game} instance
@@ -28,6 +30,72 @@ public class DebugAction extends Action {
      */
     @Override
     public ObjectNode execute(final ObjectMapper mapper, final Game game, final Stats stats) {
+        int slot = getCacheSlot();
+        if (slot == NOT_CACHED) {
+            return render(mapper, game, stats);
+        }
+
+        long version = getZoneVersion(game);
+        QueryCache cache = game.getQueryCache();
+        ObjectNode node = cache.get(slot, version);
+        if (node == null) {
+            node = render(mapper, game, stats);
+            cache.put(slot, version, node);
+        }
+        return node;
+    }
+
+    /**
+     * Finds the slot of the {@link QueryCache} remembering the output of this query.
+     *
+     * @return the slot of the query, or {@link #NOT_CACHED} for queries that are not
+     * remembered
+     */
+    private int getCacheSlot() {
+        if (playerIdx != 1 && playerIdx != 2) {
+            return switch (command) {
+                case "getCardsOnTable" -> QueryCache.CARDS_ON_TABLE;
+                case "getFrozenCardsOnTable" -> QueryCache.FROZEN_CARDS;
+                default -> NOT_CACHED;
+            };
+        }
+        return switch (command) {
+            case "getPlayerDeck" -> QueryCache.playerSlot(QueryCache.PLAYER_DECK, playerIdx);
+            case "getCardsInHand" -> QueryCache.playerSlot(QueryCache.CARDS_IN_HAND, playerIdx);
+            case "getPlayerHero" -> QueryCache.playerSlot(QueryCache.PLAYER_HERO, playerIdx);
+            case "getCardsOnTable" -> QueryCache.CARDS_ON_TABLE;
+            case "getFrozenCardsOnTable" -> QueryCache.FROZEN_CARDS;
+            default -> NOT_CACHED;
+        };
+    }
+
+    /**
+     * Retrieves the version of the zone rendered by this query. Frozen cards thaw when a
+     * turn ends, so the frozen cards query also depends on the number of ended turns.
+     *
+     * @param game the current {@link Game} instance
+     * @return the version of the deck, hand, hero or board rendered by the query
+     */
+    private long getZoneVersion(final Game game) {
+        return switch (command) {
+            case "getPlayerDeck" -> game.getPlayer(playerIdx).getDeck().getVersion();
+            case "getCardsInHand" -> game.getPlayer(playerIdx).getHand().getVersion();
+            case "getPlayerHero" -> game.getPlayer(playerIdx).getHero().getVersion();
+            case "getFrozenCardsOnTable" -> game.getBoard().getVersion()
+                    + ((long) game.getStats().getNumTurn() << Integer.SIZE);
+            default -> game.getBoard().getVersion();
+        };
+    }
+
+    /**
+     * Builds the output of the debug action from the current state of the game.
+     *
+     * @param mapper the {@link ObjectMapper} used to create JSON nodes
+     * @param game   the current {@link Game} instance
+     * @param stats  the {@link Stats} object containing game statistics
+     * @return an {@link ObjectNode} containing the output of the command
+     */
+    private ObjectNode render(final ObjectMapper mapper, final Game game, final Stats stats) {
         ObjectNode node = mapper.createObjectNode();
         node.put("command", command);
 
@@ -81,7 +149,7 @@ public class DebugAction extends Action {
             }
             case "getFrozenCardsOnTable" -> {
                 GameBoard board = game.getBoard();
-                ArrayNode boardArray = board.getFrozenCardsArray(mapper);
+                ArrayNode boardArray = board.getFrozenCardsArray(mapper, stats.getNumTurn());
                 node.set("output", boardArray);
             }
             default -> {
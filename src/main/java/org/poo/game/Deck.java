@@ -10,10 +10,11 @@ import java.util.Random;
 
 /**
  * Represents a deck of cards in the game. Provides functionality for initializing,
- * shuffling, freezing, and retrieving cards in various formats.
+ * shuffling, and retrieving cards in various formats.
  */
 public class Deck {
     private final ArrayList<Card> cards = new ArrayList<>();
+    private int version;
 
     public Deck() {
     }
@@ -26,18 +27,27 @@ public class Deck {
      */
     public Deck(final ArrayList<CardInput> cardsInput) {
         for (CardInput cardInput : cardsInput) {
-            switch (cardInput.getName()) {
-                case "Sentinel", "Berserker", "Goliath", "Warden" ->
-                        cards.add(new Minion(cardInput));
-                case "The Ripper" -> cards.add(new TheRipper(cardInput));
-                case "Miraj" -> cards.add(new Miraj(cardInput));
-                case "The Cursed One" -> cards.add(new TheCursedOne(cardInput));
-                case "Disciple" -> cards.add(new Disciple(cardInput));
-                default -> cards.add(new Card(cardInput));
-            }
+            cards.add(createCard(cardInput));
         }
     }
 
+    /**
+     * Creates the card object matching the name of the given input.
+     *
+     * @param cardInput the {@link CardInput} describing the card
+     * @return a {@link Card} of the appropriate type
+     */
+    static Card createCard(final CardInput cardInput) {
+        return switch (cardInput.getName()) {
+            case "Sentinel", "Berserker", "Goliath", "Warden" -> new Minion(cardInput);
+            case "The Ripper" -> new TheRipper(cardInput);
+            case "Miraj" -> new Miraj(cardInput);
+            case "The Cursed One" -> new TheCursedOne(cardInput);
+            case "Disciple" -> new Disciple(cardInput);
+            default -> new Card(cardInput);
+        };
+    }
+
     /**
      * Shuffles the deck using a specified random seed.
      *
@@ -46,15 +56,7 @@ public class Deck {
     public void shuffleDeck(final int seed) {
         Random rand = new Random(seed);
         Collections.shuffle(cards, rand);
-    }
-
-    /**
-     * Unfreezes all cards in the deck by setting their frozen state to {@code false}.
-     */
-    public void setNotFrozen() {
-        for (Card card : cards) {
-            card.setIsFrozen(false);
-        }
+        version++;
     }
 
     /**
@@ -71,6 +73,55 @@ public class Deck {
         return deckArray;
     }
 
+    /**
+     * Adds a card at the end of the deck.
+     *
+     * @param card the {@link Card} to add
+     */
+    public void addCard(final Card card) {
+        cards.add(card);
+        version++;
+    }
+
+    /**
+     * Removes the card at the given position in the deck.
+     *
+     * @param idx the index of the card to remove
+     * @return the removed {@link Card}
+     */
+    public Card removeCard(final int idx) {
+        version++;
+        return cards.remove(idx);
+    }
+
+    /**
+     * Removes the given card from the deck, if it is present.
+     *
+     * @param card the {@link Card} to remove
+     */
+    public void removeCard(final Card card) {
+        if (cards.remove(card)) {
+            version++;
+        }
+    }
+
+    /**
+     * Marks the deck as changed after the attributes of one of its cards were modified.
+     */
+    public void bumpVersion() {
+        version++;
+    }
+
+    /**
+     * Retrieves the version of the deck, which changes whenever the deck or one of its cards
+     * is modified through the methods of this class.
+     *
+     * @return the current version of the deck
+     */
+    public int getVersion() {
+        return version;
+    }
+
     /**
      * Retrieves the size of the deck.
      *
@@ -81,7 +132,8 @@ public class Deck {
     }
 
     /**
-     * Retrieves the list of cards in the deck.
+     * Retrieves the list of cards in the deck. The list must not be modified directly,
+     * use {@link #addCard} and {@link #removeCard} so that the version of the deck changes.
      *
      * @return an {@link ArrayList} of {@link Card} objects in the deck
      */
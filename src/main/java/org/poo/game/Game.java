@@ -14,6 +14,11 @@ import org.poo.game.heroes.EmpressThorina;
 import org.poo.game.heroes.GeneralKocioraw;
 import org.poo.game.heroes.KingMudface;
 import org.poo.game.heroes.LordRoyce;
+import org.poo.metrics.ActionEvent;
+import org.poo.metrics.ActionMetrics;
+import org.poo.metrics.AllocationMetrics;
+import org.poo.metrics.PrepareGameEvent;
+import org.poo.metrics.PrepareRoundEvent;
 
 import java.util.ArrayList;
 
@@ -29,6 +34,9 @@ public class Game {
     private final ArrayList<Action> actions = new ArrayList<>();
     private final GameBoard board = new GameBoard();
     private final Stats stats;
+    private final QueryCache queryCache = new QueryCache();
+    private int logId = -1;
+    private SpectatorFeed feed;
 
     /**
      * Constructor for initializing a new game with provided statistics.
@@ -39,22 +47,6 @@ public class Game {
         this.stats = stats;
     }
 
-    /**
-     * Parses the decks for a player from the provided input.
-     *
-     * @param decks the {@link DecksInput} containing deck data
-     * @return a list of {@link Deck} objects
-     */
-    public ArrayList<Deck> parseDecks(final DecksInput decks) {
-        ArrayList<Deck> playerDecks = new ArrayList<>();
-        for (int i = 0; i < decks.getNrDecks(); i++) {
-            ArrayList<CardInput> deckInput = decks.getDecks().get(i);
-            Deck deck = new Deck(deckInput);
-            playerDecks.add(deck);
-        }
-        return playerDecks;
-    }
-
     /**
      * Parses a hero from the provided card input.
      *
@@ -78,14 +70,34 @@ public class Game {
      * @param numGame the index of the current game in the input
      */
     public void prepareGame(final Input input, final int numGame) {
-        GameInput game = input.getGames().get(numGame);
-        StartGameInput startGame = game.getStartGame();
+        prepareGame(input.getPlayerOneDecks(), input.getPlayerTwoDecks(),
+                input.getGames().get(numGame), numGame);
+    }
 
-        ArrayList<Deck> player1Decks = parseDecks(input.getPlayerOneDecks());
-        ArrayList<Deck> player2Decks = parseDecks(input.getPlayerTwoDecks());
+    /**
+     * Prepares the game by initializing players, decks, and starting settings.
+     * Only the two decks played in this game are built, so the other decks of the
+     * inputs may be left unread (null).
+     *
+     * @param playerOneDecks the {@link DecksInput} of the first player
+     * @param playerTwoDecks the {@link DecksInput} of the second player
+     * @param game           the {@link GameInput} describing the game
+     * @param numGame        the index of the game in the input
+     */
+    public void prepareGame(final DecksInput playerOneDecks, final DecksInput playerTwoDecks,
+                            final GameInput game, final int numGame) {
+        long allocated = 0;
+        if (AllocationMetrics.ENABLED) {
+            allocated = AllocationMetrics.allocatedBytes();
+        }
+        PrepareGameEvent event = new PrepareGameEvent();
+        event.begin();
+        StartGameInput startGame = game.getStartGame();
 
-        Deck player1Deck = player1Decks.get(startGame.getPlayerOneDeckIdx());
-        Deck player2Deck = player2Decks.get(startGame.getPlayerTwoDeckIdx());
+        Deck player1Deck = new Deck(playerOneDecks.getDecks()
+                .get(startGame.getPlayerOneDeckIdx()));
+        Deck player2Deck = new Deck(playerTwoDecks.getDecks()
+                .get(startGame.getPlayerTwoDeckIdx()));
         player1Deck.shuffleDeck(startGame.getShuffleSeed());
         player2Deck.shuffleDeck(startGame.getShuffleSeed());
 
@@ -96,6 +108,14 @@ public class Game {
         player2 = new Player(player2Deck, player2Hero);
 
         startingPlayer = startGame.getStartingPlayer();
+        if (event.shouldCommit()) {
+            event.finish(numGame, startGame.getShuffleSeed(), startingPlayer,
+                    player1Hero.getName(), player2Hero.getName(), player1Deck.getSize(),
+                    player2Deck.getSize());
+        }
+        if (AllocationMetrics.ENABLED) {
+            AllocationMetrics.record("prepareGame", allocated);
+        }
     }
 
     /**
@@ -105,25 +125,42 @@ public class Game {
      * @param numGame the index of the current game in the input
      */
     public void parseActions(final Input input, final int numGame) {
-        GameInput game = input.getGames().get(numGame);
+        parseActions(input.getGames().get(numGame));
+    }
+
+    /**
+     * Parses and initializes the actions of the given game, adding them to the action list.
+     *
+     * @param game the {@link GameInput} containing action data
+     */
+    public void parseActions(final GameInput game) {
         for (ActionsInput action : game.getActions()) {
-            Action newAction;
-            if (action.getCommand().contains("get")) {
-                newAction = new DebugAction(action);
-            } else {
-                newAction = new PlayAction(action);
-            }
-            actions.add(newAction);
+            actions.add(parseAction(action));
         }
     }
 
     /**
-     * Prepares the game for a new round by drawing cards, updating mana,
-     * and resetting attack and ability statuses.
+     * Parses a single action, choosing between a debug action and a player action.
+     *
+     * @param action the {@link ActionsInput} describing the action
+     * @return a {@link DebugAction} for query commands, a {@link PlayAction} otherwise
+     */
+    public Action parseAction(final ActionsInput action) {
+        if (action.getCommand().contains("get")) {
+            return new DebugAction(action);
+        }
+        return new PlayAction(action);
+    }
+
+    /**
+     * Prepares the game for a new round by drawing cards and updating mana. Cards and heroes
+     * remember the round of their last attack, so their attack status needs no reset.
      *
      * @param round the current round number
      */
     public void prepareRound(final int round) {
+        PrepareRoundEvent event = new PrepareRoundEvent();
+        event.begin();
         player1.drawCard();
         player2.drawCard();
 
@@ -134,10 +171,9 @@ public class Game {
             player1.setMana(player1.getMana() + GlobalVariables.MANA_LIMIT);
             player2.setMana(player2.getMana() + GlobalVariables.MANA_LIMIT);
         }
-
-        board.setCardsNotAttacked();
-        player1.getHero().setHasAttacked(false);
-        player2.getHero().setHasAttacked(false);
+        if (event.shouldCommit()) {
+            event.finish(round, player1.getMana(), player2.getMana(), board.getCardsCount());
+        }
     }
 
     /**
@@ -147,18 +183,112 @@ public class Game {
      * @param outputArray the {@link ArrayNode} to store output results
      */
     public void playGame(final ObjectMapper mapper, final ArrayNode outputArray) {
-        stats.setCurrentPlayer(startingPlayer);
-        stats.setNumRound(1);
-        prepareRound(1);
+        startGame();
 
         for (Action action : actions) {
-            ObjectNode objectNode = action.execute(mapper, this, stats);
+            ObjectNode objectNode = executeAction(mapper, action);
             if (objectNode != null) {
                 outputArray.add(objectNode);
             }
         }
     }
 
+    /**
+     * Sets the starting player and prepares the first round of the game.
+     */
+    public void startGame() {
+        stats.setCurrentPlayer(startingPlayer);
+        stats.setNumRound(1);
+        stats.setNumTurn(0);
+        prepareRound(1);
+        if (feed != null) {
+            feed.publish(this);
+        }
+    }
+
+    /**
+     * Gets the feed publishing a {@link GameView} of this game after every action that
+     * changes its state, creating it on first use. Publication only starts once the feed
+     * exists, so this must be called by the thread running the game, or before it starts.
+     *
+     * @return the {@link SpectatorFeed} of this game
+     */
+    public SpectatorFeed spectate() {
+        if (feed == null) {
+            feed = new SpectatorFeed();
+            if (player1 != null && stats.getNumRound() > 0) {
+                feed.publish(this);
+            }
+        }
+        return feed;
+    }
+
+    /**
+     * Executes a single action against the current state of the game.
+     *
+     * @param mapper the {@link ObjectMapper} for JSON operations
+     * @param action the {@link Action} to execute
+     * @return the output of the action, or null if it produces none
+     */
+    public ObjectNode executeAction(final ObjectMapper mapper, final Action action) {
+        ActionEvent event = new ActionEvent();
+        event.begin();
+        int currentPlayer = stats.getCurrentPlayer();
+        long start = 0;
+        if (ActionMetrics.ENABLED) {
+            start = System.nanoTime();
+        }
+        long allocated = 0;
+        if (AllocationMetrics.ENABLED) {
+            allocated = AllocationMetrics.allocatedBytes();
+        }
+
+        String actingCard = null;
+        if (ActionLog.ENABLED) {
+            actingCard = ActionLog.getActingCard(this, action);
+        }
+
+        ObjectNode result = action.execute(mapper, this, stats);
+
+        if (AllocationMetrics.ENABLED) {
+            AllocationMetrics.record(action.getCommand(), allocated);
+        }
+        if (ActionLog.ENABLED) {
+            ActionLog.record(this, action, currentPlayer, actingCard, result);
+        }
+        if (feed != null && action instanceof PlayAction && getError(result) == null) {
+            feed.publish(this);
+        }
+
+        if (ActionMetrics.ENABLED) {
+            ActionMetrics.record(action.getCommand(), getError(result), System.nanoTime() - start);
+        }
+        if (event.shouldCommit()) {
+            event.finish(action.getCommand(), getError(result), currentPlayer,
+                    stats.getNumRound());
+        }
+        return result;
+    }
+
+    /**
+     * Gets the id of this game in the {@link ActionLog}, assigning it on first use.
+     *
+     * @return the id of the game in the action log
+     */
+    int getLogId() {
+        if (logId < 0) {
+            logId = ActionLog.nextGameId();
+        }
+        return logId;
+    }
+
+    private static String getError(final ObjectNode result) {
+        if (result != null && result.has("error")) {
+            return result.get("error").asText();
+        }
+        return null;
+    }
+
     /**
      * Retrieves the player corresponding to the given index.
      *
@@ -173,22 +303,6 @@ public class Game {
         }
     }
 
-    /**
-     * Sets all cards in the player's rows on the board to not frozen.
-     *
-     * @param board  the {@link GameBoard} containing the cards
-     * @param player the {@link Player} whose rows will be updated
-     */
-    public void setCardsNotFrozen(final GameBoard board, final Player player) {
-        if (player.equals(player1)) {
-            board.getBoard().get(GlobalVariables.P_1_FRONT_ROW).setNotFrozen();
-            board.getBoard().get(GlobalVariables.P_1_BACK_ROW).setNotFrozen();
-        } else {
-            board.getBoard().get(GlobalVariables.P_2_FRONT_ROW).setNotFrozen();
-            board.getBoard().get(GlobalVariables.P_2_BACK_ROW).setNotFrozen();
-        }
-    }
-
     /**
      * Determines the row index for a card based on the player and the card's mandatory row.
      *
@@ -309,6 +423,38 @@ public class Game {
         return player2;
     }
 
+    /**
+     * Retrieves the cache of debug query results of this game.
+     *
+     * @return the {@link QueryCache} of the game
+     */
+    QueryCache getQueryCache() {
+        return queryCache;
+    }
+
+    /**
+     * Retrieves the statistics tracked by this game.
+     *
+     * @return the {@link Stats} object of the game
+     */
+    public Stats getStats() {
+        return stats;
+    }
+
+    /**
+     * Restores the players and the starting player of a previously saved game.
+     *
+     * @param restoredPlayer1 the first {@link Player}
+     * @param restoredPlayer2 the second {@link Player}
+     * @param restoredStartingPlayer the index of the starting player
+     */
+    void restorePlayers(final Player restoredPlayer1, final Player restoredPlayer2,
+                        final int restoredStartingPlayer) {
+        player1 = restoredPlayer1;
+        player2 = restoredPlayer2;
+        startingPlayer = restoredStartingPlayer;
+    }
+
     /**
      * Retrieves the starting player.
      *
@@ -6,9 +6,8 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import java.util.ArrayList;
 
 /**
- * Represents the game board that holds rows of cards. It manages the cards in each row,
- * tracks attacked and frozen states, and provides methods for retrieving and updating
- * the cards on the board.
+ * Represents the game board that holds rows of cards. It manages the cards in each row
+ * and provides methods for retrieving and updating the cards on the board.
  */
 public class GameBoard {
     private final ArrayList<Deck> board = new ArrayList<>(GlobalVariables.ROWS_NUMBER);
@@ -43,13 +42,14 @@ public class GameBoard {
      * frozen cards on the board.
      *
      * @param mapper the {@link ObjectMapper} used to create the JSON output
+     * @param turn   the number of turns ended so far in the game
      * @return an {@link ArrayNode} containing the JSON representation of the frozen cards
      */
-    public ArrayNode getFrozenCardsArray(final ObjectMapper mapper) {
+    public ArrayNode getFrozenCardsArray(final ObjectMapper mapper, final int turn) {
         ArrayNode boardArray = mapper.createArrayNode();
         for (Deck row : board) {
             for (Card card : row.getCards()) {
-                if (card.isFrozen) {
+                if (card.isFrozen(turn)) {
                     boardArray.add(card.getCardNode(mapper));
                 }
             }
@@ -72,15 +72,30 @@ public class GameBoard {
     }
 
     /**
-     * Sets the `hasAttacked` flag for all cards on the board to false
-     * Used at the beginning of each round to reset the attack status of all cards.
+     * Counts the cards placed on all the rows of the board.
+     *
+     * @return the number of cards on the board
      */
-    public void setCardsNotAttacked() {
-        for (Deck deck : board) {
-            for (Card card : deck.getCards()) {
-                card.setHasAttacked(false);
-            }
+    public int getCardsCount() {
+        int count = 0;
+        for (Deck row : board) {
+            count += row.getSize();
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves the version of the board, which changes whenever one of its rows changes.
+     * Row versions only ever grow, so their sum is a version of the whole board.
+     *
+     * @return the current version of the board
+     */
+    public long getVersion() {
+        long version = 0;
+        for (Deck row : board) {
+            version += row.getVersion();
         }
+        return version;
     }
 
     /**
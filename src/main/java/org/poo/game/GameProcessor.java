@@ -0,0 +1,243 @@
+package org.poo.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.fileio.ActionsInput;
+
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Feeds a running {@link Game} with actions coming from a {@link Flow.Publisher} and
+ * publishes the output of every action that produces one. Actions are requested from
+ * upstream one at a time, and only while the downstream subscriber has outstanding demand,
+ * so an unbounded stream of actions is processed in constant memory.
+ * The game must be prepared and started before the first action arrives.
+ *
+ * <p>Signals to the upstream subscription and to the downstream subscriber are never sent
+ * while holding the lock of the processor, and only by one thread at a time: the thread
+ * draining the pending signals keeps looping while other calls add work, so a publisher
+ * or a subscriber calling back synchronously does not grow the stack.
+ */
+public final class GameProcessor implements Flow.Processor<ActionsInput, ObjectNode> {
+    /**
+     * Subscription handed to a rejected subscriber, which must not act on the stream.
+     */
+    private static final Flow.Subscription REJECTED = new Flow.Subscription() {
+        @Override
+        public void request(final long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    };
+
+    private final Game game;
+    private final ObjectMapper mapper;
+    private final AtomicInteger work = new AtomicInteger();
+    private Flow.Subscription upstream;
+    private Flow.Subscriber<? super ObjectNode> downstream;
+    private boolean subscribed;
+    private long demand;
+    private boolean requested;
+    private ObjectNode result;
+    private boolean done;
+    private boolean completed;
+    private Throwable failure;
+    private boolean cancelUpstream;
+    private boolean terminated;
+
+    /**
+     * Creates a processor playing actions in the given game.
+     *
+     * @param game   the prepared and started {@link Game}
+     * @param mapper the {@link ObjectMapper} used to create the output
+     */
+    public GameProcessor(final Game game, final ObjectMapper mapper) {
+        this.game = game;
+        this.mapper = mapper;
+    }
+
+    /**
+     * Subscription handed to the downstream subscriber.
+     */
+    private final class OutputSubscription implements Flow.Subscription {
+        @Override
+        public void request(final long n) {
+            synchronized (GameProcessor.this) {
+                if (terminated) {
+                    return;
+                }
+                if (n <= 0) {
+                    result = null;
+                    done = true;
+                    failure = new IllegalArgumentException(
+                            "Requested a non-positive number of results: " + n);
+                    cancelUpstream = true;
+                } else {
+                    demand += n;
+                    if (demand < 0) {
+                        demand = Long.MAX_VALUE;
+                    }
+                }
+            }
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            synchronized (GameProcessor.this) {
+                result = null;
+                done = true;
+                terminated = true;
+                cancelUpstream = true;
+            }
+            drain();
+        }
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ObjectNode> subscriber) {
+        boolean accepted;
+        synchronized (this) {
+            accepted = downstream == null;
+            if (accepted) {
+                downstream = subscriber;
+            }
+        }
+        if (!accepted) {
+            subscriber.onSubscribe(REJECTED);
+            subscriber.onError(new IllegalStateException("Only one subscriber is supported."));
+            return;
+        }
+        subscriber.onSubscribe(new OutputSubscription());
+        synchronized (this) {
+            subscribed = true;
+        }
+        drain();
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        boolean accepted;
+        synchronized (this) {
+            accepted = upstream == null && !terminated;
+            if (accepted) {
+                upstream = subscription;
+            }
+        }
+        if (!accepted) {
+            subscription.cancel();
+            return;
+        }
+        drain();
+    }
+
+    @Override
+    public void onNext(final ActionsInput action) {
+        synchronized (this) {
+            requested = false;
+            if (done) {
+                return;
+            }
+            result = game.executeAction(mapper, game.parseAction(action));
+        }
+        drain();
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            failure = throwable;
+        }
+        drain();
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            if (done) {
+                return;
+            }
+            done = true;
+            completed = true;
+        }
+        drain();
+    }
+
+    /**
+     * Sends the pending signals, unless another thread, or a caller further up the stack,
+     * is already doing so; that one then sends the signals added meanwhile as well.
+     */
+    private void drain() {
+        if (work.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        while (missed != 0) {
+            boolean sent = true;
+            while (sent) {
+                sent = sendNext();
+            }
+            missed = work.addAndGet(-missed);
+        }
+    }
+
+    /**
+     * Sends the next pending signal: a cancellation to upstream, then the output of the last
+     * action, then the end of the stream, or else a request for the next action if the
+     * downstream subscriber still wants output and no action is already on its way.
+     *
+     * @return whether a signal was sent
+     */
+    private boolean sendNext() {
+        Flow.Subscription subscription;
+        Flow.Subscriber<? super ObjectNode> subscriber;
+        ObjectNode next = null;
+        Throwable error = null;
+        boolean cancel = false;
+        boolean complete = false;
+        synchronized (this) {
+            subscription = upstream;
+            subscriber = downstream;
+            if (cancelUpstream && upstream != null) {
+                cancelUpstream = false;
+                cancel = true;
+            } else if (terminated || !subscribed) {
+                return false;
+            } else if (result != null) {
+                next = result;
+                result = null;
+                demand--;
+            } else if (failure != null) {
+                terminated = true;
+                error = failure;
+            } else if (completed) {
+                terminated = true;
+                complete = true;
+            } else if (upstream != null && demand > 0 && !requested && !done) {
+                requested = true;
+            } else {
+                return false;
+            }
+        }
+
+        if (cancel) {
+            subscription.cancel();
+        } else if (next != null) {
+            subscriber.onNext(next);
+        } else if (error != null) {
+            subscriber.onError(error);
+        } else if (complete) {
+            subscriber.onComplete();
+        } else {
+            subscription.request(1);
+        }
+        return true;
+    }
+}
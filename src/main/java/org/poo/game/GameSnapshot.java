@@ -0,0 +1,294 @@
+package org.poo.game;
+
+import org.poo.fileio.CardInput;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Encodes the full state of a {@link Game} into a compact, versioned binary snapshot and
+ * rebuilds a game from it. Strings (names, descriptions and colors) are written once in a
+ * dictionary at the start of the snapshot and referenced by index afterwards. Counts and
+ * indices are stored in unsigned bytes and shorts; a game too large for them is refused
+ * with an {@link IOException} rather than written with wrapped-around values.
+ *
+ * <p>A snapshot always holds the in-game part of the {@link Stats} (current player, round
+ * and turn). The cross-game counters (games played and wins) are only included on request,
+ * for games that own their statistics. Snapshots are read from a {@link ByteBuffer}, so a
+ * checkpoint can be restored straight from a memory-mapped file.
+ */
+public final class GameSnapshot {
+    private static final int MAGIC = 0x47575354;
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_BYTE = 0xFF;
+    private static final int MAX_SHORT = 0xFFFF;
+
+    private GameSnapshot() {
+    }
+
+    /**
+     * Saves the state of the game to a checkpoint file, without the cross-game counters.
+     *
+     * @param game the {@link Game} to save
+     * @param path the checkpoint file
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void checkpoint(final Game game, final Path path) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(path)))) {
+            write(game, out, false);
+        }
+    }
+
+    /**
+     * Restores a game from a checkpoint file, reading it through a memory mapping.
+     * The in-game part of the given statistics is overwritten with the one of the snapshot.
+     *
+     * @param path  the checkpoint file
+     * @param stats the {@link Stats} used by the restored game
+     * @return the restored {@link Game}
+     * @throws IOException in case of exceptions to reading, or if the file is not a
+     * supported snapshot
+     */
+    public static Game restore(final Path path, final Stats stats) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+            return read(buffer, stats);
+        }
+    }
+
+    /**
+     * Writes the state of the game to the given output.
+     *
+     * @param game       the {@link Game} to save
+     * @param out        the {@link DataOutput} receiving the snapshot
+     * @param withTotals whether to include the games played and the wins of each player
+     * @throws IOException in case of exceptions to writing, or if the game is too large for
+     * the format
+     */
+    public static void write(final Game game, final DataOutput out, final boolean withTotals)
+            throws IOException {
+        HashMap<String, Integer> indices = new HashMap<>();
+        ArrayList<String> strings = new ArrayList<>();
+        collectStrings(game, indices, strings);
+
+        out.writeInt(MAGIC);
+        out.writeByte(FORMAT_VERSION);
+
+        // every index in the dictionary fits in a short once its size does
+        out.writeShort(checked(strings.size(), MAX_SHORT, "strings"));
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(checked(bytes.length, MAX_SHORT, "bytes in a string"));
+            out.write(bytes);
+        }
+
+        Stats stats = game.getStats();
+        out.writeByte(game.getStartingPlayer());
+        out.writeByte(stats.getCurrentPlayer());
+        out.writeInt(stats.getNumRound());
+        out.writeInt(stats.getNumTurn());
+        out.writeBoolean(withTotals);
+        if (withTotals) {
+            out.writeInt(stats.getTotalGamesPlayed());
+            out.writeInt(stats.getPlayer1Wins());
+            out.writeInt(stats.getPlayer2Wins());
+        }
+
+        for (int idx = 1; idx <= 2; idx++) {
+            Player player = game.getPlayer(idx);
+            out.writeInt(player.getMana());
+            writeCard(player.getHero(), indices, out);
+            writeCards(player.getDeck().getCards(), indices, out);
+            writeCards(player.getHand().getCards(), indices, out);
+        }
+        for (Deck row : game.getBoard().getBoard()) {
+            writeCards(row.getCards(), indices, out);
+        }
+    }
+
+    /**
+     * Rebuilds a game from a snapshot previously produced by {@link #write}. The in-game
+     * part of the given statistics is overwritten, and so are the cross-game counters if
+     * the snapshot holds them.
+     *
+     * @param in    the {@link ByteBuffer} holding the snapshot, read from its position
+     * @param stats the {@link Stats} used by the restored game
+     * @return the restored {@link Game}
+     * @throws IOException if the buffer does not hold a supported snapshot, or holds a
+     * truncated or corrupt one
+     */
+    public static Game read(final ByteBuffer in, final Stats stats) throws IOException {
+        try {
+            return readSnapshot(in, stats);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IOException("Truncated game snapshot.", e);
+        }
+    }
+
+    private static Game readSnapshot(final ByteBuffer in, final Stats stats) throws IOException {
+        if (in.remaining() < Integer.BYTES + 1 || in.getInt() != MAGIC) {
+            throw new IOException("Not a game snapshot.");
+        }
+        int version = in.get();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported game snapshot version " + version + ".");
+        }
+
+        int numStrings = Short.toUnsignedInt(in.getShort());
+        String[] strings = new String[numStrings];
+        for (int i = 0; i < numStrings; i++) {
+            byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+            in.get(bytes);
+            strings[i] = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        Game game = new Game(stats);
+        int startingPlayer = in.get();
+        stats.setCurrentPlayer(in.get());
+        stats.setNumRound(in.getInt());
+        stats.setNumTurn(in.getInt());
+        if (in.get() != 0) {
+            stats.setTotalGamesPlayed(in.getInt());
+            stats.setPlayer1Wins(in.getInt());
+            stats.setPlayer2Wins(in.getInt());
+        }
+
+        Player[] players = new Player[2];
+        for (int i = 0; i < players.length; i++) {
+            int mana = in.getInt();
+            Hero hero = (Hero) readCard(game, true, strings, in);
+            Deck deck = new Deck();
+            readCards(deck, strings, in);
+            players[i] = new Player(deck, hero);
+            players[i].setMana(mana);
+            readCards(players[i].getHand(), strings, in);
+        }
+        game.restorePlayers(players[0], players[1], startingPlayer);
+
+        for (Deck row : game.getBoard().getBoard()) {
+            readCards(row, strings, in);
+        }
+        return game;
+    }
+
+    private static void collectStrings(final Game game, final HashMap<String, Integer> indices,
+                                       final ArrayList<String> strings) {
+        ArrayList<Card> all = new ArrayList<>();
+        for (int idx = 1; idx <= 2; idx++) {
+            Player player = game.getPlayer(idx);
+            all.add(player.getHero());
+            all.addAll(player.getDeck().getCards());
+            all.addAll(player.getHand().getCards());
+        }
+        for (Deck row : game.getBoard().getBoard()) {
+            all.addAll(row.getCards());
+        }
+        for (Card card : all) {
+            addString(card.name, indices, strings);
+            addString(card.description, indices, strings);
+            for (String color : card.colors) {
+                addString(color, indices, strings);
+            }
+        }
+    }
+
+    private static void addString(final String string, final HashMap<String, Integer> indices,
+                                  final ArrayList<String> strings) {
+        if (!indices.containsKey(string)) {
+            indices.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    private static void writeCards(final List<Card> cards, final HashMap<String, Integer> indices,
+                                   final DataOutput out) throws IOException {
+        out.writeByte(checked(cards.size(), MAX_BYTE, "cards in a zone"));
+        for (Card card : cards) {
+            writeCard(card, indices, out);
+        }
+    }
+
+    private static void writeCard(final Card card, final HashMap<String, Integer> indices,
+                                  final DataOutput out) throws IOException {
+        out.writeShort(indices.get(card.name));
+        out.writeShort(indices.get(card.description));
+        out.writeByte(checked(card.colors.size(), MAX_BYTE, "colors on a card"));
+        for (String color : card.colors) {
+            out.writeShort(indices.get(color));
+        }
+        out.writeInt(card.mana);
+        out.writeInt(card.attackDamage);
+        out.writeInt(card.health);
+        out.writeInt(card.attackedRound);
+        out.writeInt(card.frozenTurn);
+        out.writeBoolean(card.hasUsedAbility);
+    }
+
+    /**
+     * Checks that a count fits in the unsigned field holding it.
+     */
+    private static int checked(final int count, final int max, final String what)
+            throws IOException {
+        if (count > max) {
+            throw new IOException("A game snapshot holds at most " + max + " " + what
+                    + ", not " + count + ".");
+        }
+        return count;
+    }
+
+    private static void readCards(final Deck deck, final String[] strings, final ByteBuffer in)
+            throws IOException {
+        int size = Byte.toUnsignedInt(in.get());
+        for (int i = 0; i < size; i++) {
+            deck.addCard(readCard(null, false, strings, in));
+        }
+    }
+
+    private static Card readCard(final Game game, final boolean isHero, final String[] strings,
+                                 final ByteBuffer in) throws IOException {
+        CardInput cardInput = new CardInput();
+        cardInput.setName(strings[Short.toUnsignedInt(in.getShort())]);
+        cardInput.setDescription(strings[Short.toUnsignedInt(in.getShort())]);
+        int numColors = Byte.toUnsignedInt(in.get());
+        ArrayList<String> colors = new ArrayList<>(numColors);
+        for (int i = 0; i < numColors; i++) {
+            colors.add(strings[Short.toUnsignedInt(in.getShort())]);
+        }
+        cardInput.setColors(colors);
+        cardInput.setMana(in.getInt());
+        cardInput.setAttackDamage(in.getInt());
+        cardInput.setHealth(in.getInt());
+
+        Card card;
+        if (isHero) {
+            card = game.parseHero(cardInput);
+            if (card == null) {
+                throw new IOException("Unknown hero " + cardInput.getName()
+                        + " in game snapshot.");
+            }
+            card.setHealth(cardInput.getHealth());
+        } else {
+            card = Deck.createCard(cardInput);
+        }
+
+        card.attackedRound = in.getInt();
+        card.frozenTurn = in.getInt();
+        card.hasUsedAbility = in.get() != 0;
+        return card;
+    }
+}
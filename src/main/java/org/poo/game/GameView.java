@@ -0,0 +1,286 @@
+package org.poo.game;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable picture of a game at a given moment, published by a {@link SpectatorFeed}.
+ * Views never change once created, so any number of threads may read and render them while
+ * the game goes on. Zones that did not change between two views are shared by them.
+ */
+public final class GameView {
+    private final int currentPlayer;
+    private final int numRound;
+    private final int numTurn;
+    private final int[] mana;
+    private final CardView[] heroes;
+    private final int[] deckSizes;
+    private final List<List<CardView>> hands;
+    private final List<List<CardView>> rows;
+
+    /**
+     * Immutable picture of a card or hero.
+     */
+    public static final class CardView {
+        private final String name;
+        private final String description;
+        private final List<String> colors;
+        private final int mana;
+        private final int attackDamage;
+        private final int health;
+        private final int frozenTurn;
+
+        CardView(final Card card) {
+            name = card.name;
+            description = card.description;
+            colors = Collections.unmodifiableList(card.colors);
+            mana = card.mana;
+            attackDamage = card.attackDamage;
+            health = card.health;
+            frozenTurn = card.frozenTurn;
+        }
+
+        /**
+         * Gets the name of the card.
+         *
+         * @return the name of the card
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the attack damage of the card.
+         *
+         * @return the attack damage of the card
+         */
+        public int getAttackDamage() {
+            return attackDamage;
+        }
+
+        /**
+         * Gets the health of the card.
+         *
+         * @return the health of the card
+         */
+        public int getHealth() {
+            return health;
+        }
+
+        /**
+         * Gets the mana cost of the card.
+         *
+         * @return the mana cost of the card
+         */
+        public int getMana() {
+            return mana;
+        }
+
+        private ObjectNode toCardNode(final ObjectMapper mapper) {
+            ObjectNode node = mapper.createObjectNode();
+            node.put("mana", mana);
+            node.put("attackDamage", attackDamage);
+            node.put("health", health);
+            node.put("description", description);
+            node.set("colors", colorsNode(mapper));
+            node.put("name", name);
+            return node;
+        }
+
+        private ObjectNode toHeroNode(final ObjectMapper mapper) {
+            ObjectNode node = mapper.createObjectNode();
+            node.put("mana", mana);
+            node.put("description", description);
+            node.set("colors", colorsNode(mapper));
+            node.put("name", name);
+            node.put("health", health);
+            return node;
+        }
+
+        private ArrayNode colorsNode(final ObjectMapper mapper) {
+            ArrayNode node = mapper.createArrayNode();
+            colors.forEach(node::add);
+            return node;
+        }
+    }
+
+    GameView(final Stats stats, final int[] mana, final CardView[] heroes, final int[] deckSizes,
+             final List<List<CardView>> hands, final List<List<CardView>> rows) {
+        currentPlayer = stats.getCurrentPlayer();
+        numRound = stats.getNumRound();
+        numTurn = stats.getNumTurn();
+        this.mana = mana;
+        this.heroes = heroes;
+        this.deckSizes = deckSizes;
+        this.hands = hands;
+        this.rows = rows;
+    }
+
+    /**
+     * Gets the index of the player whose turn it is.
+     *
+     * @return the current player, 1 or 2
+     */
+    public int getCurrentPlayer() {
+        return currentPlayer;
+    }
+
+    /**
+     * Gets the current round.
+     *
+     * @return the current round
+     */
+    public int getNumRound() {
+        return numRound;
+    }
+
+    /**
+     * Gets the number of turns ended so far.
+     *
+     * @return the number of ended turns
+     */
+    public int getNumTurn() {
+        return numTurn;
+    }
+
+    /**
+     * Gets the mana of a player.
+     *
+     * @param playerIdx the index of the player, 1 or 2
+     * @return the player's mana
+     */
+    public int getMana(final int playerIdx) {
+        return mana[playerIdx - 1];
+    }
+
+    /**
+     * Gets the hero of a player.
+     *
+     * @param playerIdx the index of the player, 1 or 2
+     * @return the {@link CardView} of the player's hero
+     */
+    public CardView getHero(final int playerIdx) {
+        return heroes[playerIdx - 1];
+    }
+
+    /**
+     * Gets the number of cards left in a player's deck.
+     *
+     * @param playerIdx the index of the player, 1 or 2
+     * @return the size of the player's deck
+     */
+    public int getDeckSize(final int playerIdx) {
+        return deckSizes[playerIdx - 1];
+    }
+
+    /**
+     * Gets the cards in a player's hand.
+     *
+     * @param playerIdx the index of the player, 1 or 2
+     * @return an unmodifiable list of the cards in the hand
+     */
+    public List<CardView> getHand(final int playerIdx) {
+        return hands.get(playerIdx - 1);
+    }
+
+    /**
+     * Gets the cards on a row of the board.
+     *
+     * @param row the index of the row
+     * @return an unmodifiable list of the cards on the row
+     */
+    public List<CardView> getRow(final int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Checks whether a card of this view is frozen.
+     *
+     * @param card a {@link CardView} of this view
+     * @return whether the card is frozen
+     */
+    public boolean isFrozen(final CardView card) {
+        return numTurn <= card.frozenTurn + 1;
+    }
+
+    /**
+     * Renders the cards on the board, as {@code getCardsOnTable} does.
+     *
+     * @param mapper the {@link ObjectMapper} used to create the JSON array
+     * @return an {@link ArrayNode} with one array per row
+     */
+    public ArrayNode getCardsOnTable(final ObjectMapper mapper) {
+        ArrayNode table = mapper.createArrayNode();
+        for (List<CardView> row : rows) {
+            ArrayNode rowArray = mapper.createArrayNode();
+            for (CardView card : row) {
+                rowArray.add(card.toCardNode(mapper));
+            }
+            table.add(rowArray);
+        }
+        return table;
+    }
+
+    /**
+     * Renders the frozen cards on the board, as {@code getFrozenCardsOnTable} does.
+     *
+     * @param mapper the {@link ObjectMapper} used to create the JSON array
+     * @return an {@link ArrayNode} with the frozen cards
+     */
+    public ArrayNode getFrozenCardsOnTable(final ObjectMapper mapper) {
+        ArrayNode frozen = mapper.createArrayNode();
+        for (List<CardView> row : rows) {
+            for (CardView card : row) {
+                if (isFrozen(card)) {
+                    frozen.add(card.toCardNode(mapper));
+                }
+            }
+        }
+        return frozen;
+    }
+
+    /**
+     * Renders the cards in a player's hand, as {@code getCardsInHand} does.
+     *
+     * @param mapper    the {@link ObjectMapper} used to create the JSON array
+     * @param playerIdx the index of the player, 1 or 2
+     * @return an {@link ArrayNode} with the cards in the hand
+     */
+    public ArrayNode getCardsInHand(final ObjectMapper mapper, final int playerIdx) {
+        ArrayNode hand = mapper.createArrayNode();
+        for (CardView card : getHand(playerIdx)) {
+            hand.add(card.toCardNode(mapper));
+        }
+        return hand;
+    }
+
+    /**
+     * Renders a player's hero, as {@code getPlayerHero} does.
+     *
+     * @param mapper    the {@link ObjectMapper} used to create the JSON object
+     * @param playerIdx the index of the player, 1 or 2
+     * @return an {@link ObjectNode} describing the hero
+     */
+    public ObjectNode getPlayerHero(final ObjectMapper mapper, final int playerIdx) {
+        return getHero(playerIdx).toHeroNode(mapper);
+    }
+
+    /**
+     * Gets the views of a list of cards.
+     *
+     * @param cards the cards to picture
+     * @return an unmodifiable list of {@link CardView}s
+     */
+    static List<CardView> viewOf(final ArrayList<Card> cards) {
+        CardView[] views = new CardView[cards.size()];
+        for (int i = 0; i < views.length; i++) {
+            views[i] = cards.get(i).getView();
+        }
+        return List.of(views);
+    }
+}
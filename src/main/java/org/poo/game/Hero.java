@@ -1,7 +1,6 @@
 package org.poo.game;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.fileio.CardInput;
 
@@ -11,6 +10,8 @@ import org.poo.fileio.CardInput;
  * such as a fixed health value and the ability to use special abilities.
  */
 public class Hero extends Card {
+    private ObjectNode heroNode;
+    private int version;
 
     public Hero() {
     }
@@ -30,29 +31,46 @@ public class Hero extends Card {
      * Uses the Hero's special ability on the given row (deck of cards).
      * This method can be overridden by subclasses to implement specific abilities.
      *
-     * @param row the {@link Deck} where the ability is used
+     * @param row  the {@link Deck} where the ability is used
+     * @param turn the number of turns ended so far in the game
      */
-    public void useAbility(final Deck row) {
+    public void useAbility(final Deck row, final int turn) {
     }
 
     /**
      * Generates a JSON representation of the Hero's attributes.
      * This method includes the Hero's mana, description, colors, name, and health.
+     * The node is cached until the Hero's health changes, so callers must not modify it.
      *
      * @param mapper the {@link ObjectMapper} used to create the JSON representation
      * @return an {@link ObjectNode} containing the Hero's attributes as a JSON object
      */
     public ObjectNode getHeroNode(final ObjectMapper mapper) {
-        ObjectNode node = mapper.createObjectNode();
-        node.put("mana", mana);
-        node.put("description", description);
-        ArrayNode colorsArray = mapper.createArrayNode();
-        for (String color : colors) {
-            colorsArray.add(color);
+        if (heroNode == null) {
+            ObjectNode node = mapper.createObjectNode();
+            node.put("mana", mana);
+            node.put("description", description);
+            node.set("colors", getColorsNode(mapper));
+            node.put("name", name);
+            node.put("health", health);
+            heroNode = node;
         }
-        node.set("colors", colorsArray);
-        node.put("name", name);
-        node.put("health", health);
-        return node;
+        return heroNode;
+    }
+
+    @Override
+    protected void invalidateNodes() {
+        super.invalidateNodes();
+        heroNode = null;
+        version++;
+    }
+
+    /**
+     * Retrieves the version of the Hero, which changes whenever its health changes.
+     *
+     * @return the current version of the Hero
+     */
+    public int getVersion() {
+        return version;
     }
 }
@@ -0,0 +1,231 @@
+package org.poo.game;
+
+import org.poo.fileio.ActionsInput;
+import org.poo.fileio.Coordinates;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Lists every legal action of the current player, without executing any of them. Actions
+ * are packed into {@code int}s and written into a buffer that is reused between calls, so
+ * generating the actions of a state allocates nothing once the buffer has grown large
+ * enough. The rules are the ones enforced by {@link PlayAction}.
+ *
+ * <p>A packed action holds its command in the highest byte. {@code placeCard} and
+ * {@code useHeroAbility} keep their single operand (hand index or affected row) in the
+ * lower 24 bits, while the card actions keep the attacker and attacked coordinates in four
+ * 6-bit fields.
+ */
+public final class LegalActions {
+    public static final int PLACE_CARD = 0;
+    public static final int CARD_USES_ATTACK = 1;
+    public static final int CARD_USES_ABILITY = 2;
+    public static final int USE_ATTACK_HERO = 3;
+    public static final int USE_HERO_ABILITY = 4;
+    public static final int END_PLAYER_TURN = 5;
+
+    private static final String[] COMMANDS = {"placeCard", "cardUsesAttack", "cardUsesAbility",
+        "useAttackHero", "useHeroAbility", "endPlayerTurn"};
+    private static final int COMMAND_SHIFT = 24;
+    private static final int OPERAND_MASK = (1 << COMMAND_SHIFT) - 1;
+    private static final int FIELD_BITS = 6;
+    private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int[] moves = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Generates the legal actions of the player whose turn it is. Nothing is legal once a
+     * hero has been killed. Abilities are only listed for cards that have one, and only
+     * the current player's own cards are used as attackers.
+     *
+     * @param game the {@link Game} whose state is inspected
+     * @return the number of legal actions, available through {@link #get}
+     */
+    public int generate(final Game game) {
+        size = 0;
+        Stats stats = game.getStats();
+        Player player = game.getPlayer(stats.getCurrentPlayer());
+        Player opponent = game.getOpponent(player);
+        if (player.getHero().getHealth() <= 0 || opponent.getHero().getHealth() <= 0) {
+            return 0;
+        }
+
+        ArrayList<Deck> rows = game.getBoard().getBoard();
+        ArrayList<Card> hand = player.getHand().getCards();
+        for (int i = 0; i < hand.size(); i++) {
+            Card card = hand.get(i);
+            if (card.getMana() <= player.getMana() && rows.get(game.getRowIdx(card, player))
+                    .getSize() < GlobalVariables.MAX_ROW_SIZE) {
+                add(pack(PLACE_CARD, i));
+            }
+        }
+
+        boolean tankExists = game.verifyTankExists(opponent);
+        int round = stats.getNumRound();
+        int turn = stats.getNumTurn();
+        for (int x = 0; x < GlobalVariables.ROWS_NUMBER; x++) {
+            if (game.verifyRowBelongsToEnemy(x, player)) {
+                continue;
+            }
+            ArrayList<Card> row = rows.get(x).getCards();
+            for (int y = 0; y < row.size(); y++) {
+                Card attacker = row.get(y);
+                if (attacker.isFrozen(turn) || attacker.hasAttacked(round)) {
+                    continue;
+                }
+                if (!attacker.hasUsedAbility) {
+                    addCardTargets(game, player, CARD_USES_ATTACK, x, y, tankExists);
+                }
+                if (attacker instanceof SpecialAbilityCards) {
+                    addCardTargets(game, player, CARD_USES_ABILITY, x, y,
+                            tankExists && !attacker.getName().equals("Disciple"));
+                }
+                if (!tankExists) {
+                    add(packCards(USE_ATTACK_HERO, x, y, 0, 0));
+                }
+            }
+        }
+
+        Hero hero = player.getHero();
+        if (hero.getMana() <= player.getMana() && !hero.hasAttacked(round)) {
+            boolean targetsEnemy = hero.getName().equals("Lord Royce")
+                    || hero.getName().equals("Empress Thorina");
+            for (int row = 0; row < GlobalVariables.ROWS_NUMBER; row++) {
+                if (game.verifyRowBelongsToEnemy(row, player) == targetsEnemy) {
+                    add(pack(USE_HERO_ABILITY, row));
+                }
+            }
+        }
+
+        add(pack(END_PLAYER_TURN, 0));
+        return size;
+    }
+
+    /**
+     * Adds an attack or ability of the given card on every card it may target: the
+     * current player's own cards for Disciple's ability, the enemy's cards otherwise.
+     */
+    private void addCardTargets(final Game game, final Player player, final int command,
+                                final int attackerX, final int attackerY,
+                                final boolean onlyTanks) {
+        Card attacker = game.getBoard().getCardAtPosition(attackerX, attackerY);
+        boolean targetsEnemy = command == CARD_USES_ATTACK
+                || !attacker.getName().equals("Disciple");
+        for (int x = 0; x < GlobalVariables.ROWS_NUMBER; x++) {
+            if (game.verifyRowBelongsToEnemy(x, player) != targetsEnemy) {
+                continue;
+            }
+            ArrayList<Card> row = game.getBoard().getBoard().get(x).getCards();
+            for (int y = 0; y < row.size(); y++) {
+                if (!onlyTanks || row.get(y).isTank()) {
+                    add(packCards(command, attackerX, attackerY, x, y));
+                }
+            }
+        }
+    }
+
+    private void add(final int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+        }
+        moves[size++] = move;
+    }
+
+    private static int pack(final int command, final int operand) {
+        return command << COMMAND_SHIFT | operand;
+    }
+
+    private static int packCards(final int command, final int attackerX, final int attackerY,
+                                 final int attackedX, final int attackedY) {
+        return command << COMMAND_SHIFT | attackerX << (FIELD_BITS * 3)
+                | attackerY << (FIELD_BITS * 2) | attackedX << FIELD_BITS | attackedY;
+    }
+
+    /**
+     * Gets the number of actions produced by the last call to {@link #generate}.
+     *
+     * @return the number of legal actions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a packed legal action.
+     *
+     * @param idx the index of the action, smaller than {@link #size()}
+     * @return the packed action
+     */
+    public int get(final int idx) {
+        return moves[idx];
+    }
+
+    /**
+     * Gets the command code of a packed action.
+     *
+     * @param move the packed action
+     * @return one of the command constants of this class
+     */
+    public static int getCommand(final int move) {
+        return move >>> COMMAND_SHIFT;
+    }
+
+    /**
+     * Gets the hand index of a packed {@code placeCard} action, or the affected row of a
+     * packed {@code useHeroAbility} action.
+     *
+     * @param move the packed action
+     * @return the single operand of the action
+     */
+    public static int getOperand(final int move) {
+        return move & OPERAND_MASK;
+    }
+
+    /**
+     * Gets one of the coordinates of a packed card action.
+     *
+     * @param move  the packed action
+     * @param field 0 and 1 for the attacker's x and y, 2 and 3 for the attacked card's
+     * @return the coordinate
+     */
+    public static int getCoordinate(final int move, final int field) {
+        return move >>> (FIELD_BITS * (2 + 1 - field)) & FIELD_MASK;
+    }
+
+    /**
+     * Converts a packed action into the input form understood by {@link Game#parseAction}.
+     *
+     * @param move the packed action
+     * @return an {@link ActionsInput} describing the action
+     */
+    public static ActionsInput toActionsInput(final int move) {
+        ActionsInput action = new ActionsInput();
+        int command = getCommand(move);
+        action.setCommand(COMMANDS[command]);
+        switch (command) {
+            case PLACE_CARD -> action.setHandIdx(getOperand(move));
+            case USE_HERO_ABILITY -> action.setAffectedRow(getOperand(move));
+            case USE_ATTACK_HERO -> action.setCardAttacker(coordinates(getCoordinate(move, 0),
+                    getCoordinate(move, 1)));
+            case CARD_USES_ATTACK, CARD_USES_ABILITY -> {
+                action.setCardAttacker(coordinates(getCoordinate(move, 0),
+                        getCoordinate(move, 1)));
+                action.setCardAttacked(coordinates(getCoordinate(move, 2),
+                        getCoordinate(move, 2 + 1)));
+            }
+            default -> {
+            }
+        }
+        return action;
+    }
+
+    private static Coordinates coordinates(final int x, final int y) {
+        Coordinates coordinates = new Coordinates();
+        coordinates.setX(x);
+        coordinates.setY(y);
+        return coordinates;
+    }
+}
@@ -0,0 +1,59 @@
+package org.poo.game;
+
+/**
+ * The result of playing a {@link PlayAction}. Successful actions produce no output, errors
+ * are reported together with the operands of the action, and a killed hero ends the game.
+ */
+public enum Outcome {
+    SUCCESS(Kind.NONE, null),
+    IGNORED(Kind.NONE, null),
+    NOT_ENOUGH_MANA_FOR_CARD(Kind.ERROR, "Not enough mana to place card on table."),
+    ROW_FULL(Kind.ERROR, "Cannot place card on table since row is full."),
+    NOT_ENEMY_CARD(Kind.ERROR, "Attacked card does not belong to the enemy."),
+    NOT_OWN_CARD(Kind.ERROR, "Attacked card does not belong to the current player."),
+    ALREADY_ATTACKED(Kind.ERROR, "Attacker card has already attacked this turn."),
+    FROZEN(Kind.ERROR, "Attacker card is frozen."),
+    NOT_TANK(Kind.ERROR, "Attacked card is not of type 'Tank'."),
+    NOT_ENOUGH_MANA_FOR_HERO(Kind.ERROR, "Not enough mana to use hero's ability."),
+    HERO_ALREADY_ATTACKED(Kind.ERROR, "Hero has already attacked this turn."),
+    NOT_ENEMY_ROW(Kind.ERROR, "Selected row does not belong to the enemy."),
+    NOT_OWN_ROW(Kind.ERROR, "Selected row does not belong to the current player."),
+    INVALID_COMMAND(Kind.ERROR, "Invalid command."),
+    PLAYER_ONE_WON(Kind.GAME_ENDED, "Player one killed the enemy hero."),
+    PLAYER_TWO_WON(Kind.GAME_ENDED, "Player two killed the enemy hero.");
+
+    /**
+     * How an outcome is reported in the output.
+     */
+    public enum Kind {
+        NONE,
+        ERROR,
+        GAME_ENDED
+    }
+
+    private final Kind kind;
+    private final String message;
+
+    Outcome(final Kind kind, final String message) {
+        this.kind = kind;
+        this.message = message;
+    }
+
+    /**
+     * Gets how the outcome is reported in the output.
+     *
+     * @return the {@link Kind} of the outcome
+     */
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the message printed for the outcome.
+     *
+     * @return the error or game end message, or null if the outcome produces no output
+     */
+    public String getMessage() {
+        return message;
+    }
+}
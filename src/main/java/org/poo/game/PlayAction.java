@@ -3,6 +3,8 @@ package org.poo.game;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.poo.fileio.ActionsInput;
+import org.poo.metrics.CardAnalytics;
+import org.poo.metrics.GameEndEvent;
 
 
 /**
@@ -24,239 +26,326 @@ public class PlayAction extends Action {
 
     /**
      * Executes the play action based on the current game state and player stats.
-     * This method handles various commands like placing a card, using an attack, using an ability,
-     * and ending the player's turn. It returns a JSON object with the result of the action.
+     * The action is first played, producing an {@link Outcome}, and only outcomes that
+     * need to be printed are then encoded as JSON, so successful actions allocate nothing.
      *
      * @param mapper the {@link ObjectMapper} used to create the JSON object
      * @param game   the {@link Game} object representing the current game state
      * @param stats  the {@link Stats} object representing the current player stats
      * @return an {@link ObjectNode} containing the result of the action,
-     * or null if the action does not need
-     *         to return output.
+     * or null if the action does not need to return output.
      */
     @Override
     public ObjectNode execute(final ObjectMapper mapper, final Game game, final Stats stats) {
+        return encode(mapper, play(game, stats));
+    }
+
+    /**
+     * Plays the action, handling commands like placing a card, using an attack, using an
+     * ability, and ending the player's turn, without building any output.
+     *
+     * @param game  the {@link Game} object representing the current game state
+     * @param stats the {@link Stats} object representing the current player stats
+     * @return the {@link Outcome} of the action
+     */
+    public Outcome play(final Game game, final Stats stats) {
         if (game.getPlayer1().getHero().getHealth() <= 0
                 && game.getPlayer2().getHero().getHealth() <= 0) {
+            return Outcome.IGNORED;
+        }
+        Player player = game.getPlayer(stats.getCurrentPlayer());
+
+        return switch (command) {
+            case "placeCard" -> placeCard(game, player);
+            case "cardUsesAttack" -> cardUsesAttack(game, player, stats);
+            case "cardUsesAbility" -> cardUsesAbility(game, player, stats);
+            case "useAttackHero" -> useAttackHero(game, player, stats);
+            case "useHeroAbility" -> useHeroAbility(game, player, stats);
+            case "endPlayerTurn" -> endPlayerTurn(game, stats);
+            default -> Outcome.INVALID_COMMAND;
+        };
+    }
+
+    /**
+     * Encodes the outcome of this action as JSON, together with the operands of the action
+     * that are printed for its command.
+     *
+     * @param mapper  the {@link ObjectMapper} used to create the JSON object
+     * @param outcome the {@link Outcome} returned by {@link #play}
+     * @return an {@link ObjectNode} describing the outcome, or null if it produces no output
+     */
+    public ObjectNode encode(final ObjectMapper mapper, final Outcome outcome) {
+        if (outcome.getKind() == Outcome.Kind.NONE) {
             return null;
         }
         ObjectNode node = mapper.createObjectNode();
-        node.put("command", command);
-        Player player = game.getPlayer(stats.getCurrentPlayer());
-        GameBoard board = game.getBoard();
+        if (outcome.getKind() == Outcome.Kind.GAME_ENDED) {
+            node.put("gameEnded", outcome.getMessage());
+            return node;
+        }
 
+        node.put("command", command);
         switch (command) {
             case "placeCard" -> {
-                Card card = player.getHand().getCards().get(handIdx);
-
-                if (player.getMana() < card.getMana()) {
+                if (outcome == Outcome.NOT_ENOUGH_MANA_FOR_CARD) {
                     node.put("handIdx", handIdx);
-                    node.put("error", "Not enough mana to place card on table.");
-                    return node;
                 }
+            }
+            case "cardUsesAttack", "cardUsesAbility" -> {
+                node.set("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
+                node.set("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
+            }
+            case "useAttackHero" -> node.set("cardAttacker",
+                    cardAttacker.getCoordinatesObject(mapper));
+            case "useHeroAbility" -> node.put("affectedRow", affectedRow);
+            default -> {
+            }
+        }
+        node.put("error", outcome.getMessage());
+        return node;
+    }
 
-                int idx = game.getRowIdx(card, player);
-                Deck row = board.getBoard().get(idx);
+    private Outcome placeCard(final Game game, final Player player) {
+        Card card = player.getHand().getCards().get(handIdx);
 
-                if (row.getCards().size() == GlobalVariables.MAX_ROW_SIZE) {
-                    node.put("error", "Cannot place card on table since row is full.");
-                    return node;
-                }
+        if (player.getMana() < card.getMana()) {
+            return Outcome.NOT_ENOUGH_MANA_FOR_CARD;
+        }
 
-                player.setMana(player.getMana() - card.getMana());
-                row.getCards().add(card);
-                player.getHand().getCards().remove(handIdx);
-            }
-            case "cardUsesAttack" -> {
-
-                Card cardToAttack = board.getCardAtPosition(cardAttacker.getX(),
-                        cardAttacker.getY());
-                Card cardToBeAttacked = board.getCardAtPosition(cardAttacked.getX(),
-                        cardAttacked.getY());
-                Player opponent = game.getOpponent(player);
-
-                if (!game.verifyEnemyCoordinates(cardAttacked, player)) {
-                    node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                    node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                    node.put("error", "Attacked card does not belong to the enemy.");
-                    return node;
-                }
+        int idx = game.getRowIdx(card, player);
+        Deck row = game.getBoard().getBoard().get(idx);
 
-                if (cardToAttack.hasAttacked || cardToAttack.hasUsedAbility) {
-                    node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                    node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                    node.put("error", "Attacker card has already attacked this turn.");
-                    return node;
-                }
+        if (row.getCards().size() == GlobalVariables.MAX_ROW_SIZE) {
+            return Outcome.ROW_FULL;
+        }
 
-                if (cardToAttack.isFrozen) {
-                    node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                    node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                    node.put("error", "Attacker card is frozen.");
-                    return node;
-                }
+        player.setMana(player.getMana() - card.getMana());
+        row.addCard(card);
+        player.getHand().removeCard(handIdx);
+        return Outcome.SUCCESS;
+    }
 
-                if (!cardToBeAttacked.isTank()) {
-                    if (game.verifyTankExists(opponent)) {
-                        node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                        node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                        node.put("error", "Attacked card is not of type 'Tank'.");
-                        return node;
-                    }
-                }
+    private Outcome cardUsesAttack(final Game game, final Player player, final Stats stats) {
+        GameBoard board = game.getBoard();
+        Card cardToAttack = board.getCardAtPosition(cardAttacker.getX(), cardAttacker.getY());
+        Card cardToBeAttacked = board.getCardAtPosition(cardAttacked.getX(),
+                cardAttacked.getY());
+        Player opponent = game.getOpponent(player);
 
-                cardToBeAttacked.setHealth(cardToBeAttacked.getHealth()
-                        - cardToAttack.getAttackDamage());
-                cardToAttack.hasAttacked = true;
-                if (cardToBeAttacked.getHealth() <= 0) {
-                    board.getBoard().get(cardAttacked.getX()).getCards().remove(cardAttacked.getY());
-                }
-            }
-            case "cardUsesAbility" -> {
-                Card cardToAttack = board.getCardAtPosition(cardAttacker.getX(),
-                        cardAttacker.getY());
-                Card cardToBeAttacked = board.getCardAtPosition(cardAttacked.getX(),
-                        cardAttacked.getY());
-                Player opponent = game.getOpponent(player);
-
-                if (cardToAttack.isFrozen) {
-                    node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                    node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                    node.put("error", "Attacker card is frozen.");
-                    return node;
-                }
+        if (!game.verifyEnemyCoordinates(cardAttacked, player)) {
+            return Outcome.NOT_ENEMY_CARD;
+        }
 
-                if (cardToAttack.hasAttacked) {
-                    node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                    node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                    node.put("error", "Attacker card has already attacked this turn.");
-                    return node;
-                }
+        if (cardToAttack.hasAttacked(stats.getNumRound()) || cardToAttack.hasUsedAbility) {
+            return Outcome.ALREADY_ATTACKED;
+        }
 
-                if (cardToAttack.getName().equals("Disciple")) {
-                    if (game.verifyEnemyCoordinates(cardAttacked, player)) {
-                        node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                        node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                        node.put("error",
-                                "Attacked card does not belong to the current player.");
-                        return node;
-                    }
-                } else {
-                    if (!game.verifyEnemyCoordinates(cardAttacked, player)) {
-                        node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                        node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                        node.put("error", "Attacked card does not belong to the enemy.");
-                        return node;
-                    }
-
-                    if (!cardToBeAttacked.isTank()) {
-                        if (game.verifyTankExists(opponent)) {
-                            node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                            node.put("cardAttacked", cardAttacked.getCoordinatesObject(mapper));
-                            node.put("error", "Attacked card is not of type 'Tank'.");
-                            return node;
-                        }
-                    }
-                }
+        if (cardToAttack.isFrozen(stats.getNumTurn())) {
+            return Outcome.FROZEN;
+        }
 
-                cardToAttack.useAbility(cardToBeAttacked);
-                cardToAttack.hasAttacked = true;
+        if (!cardToBeAttacked.isTank() && game.verifyTankExists(opponent)) {
+            return Outcome.NOT_TANK;
+        }
 
-                if (cardToBeAttacked.getHealth() <= 0) {
-                    Deck row = board.getBoard().get(cardAttacked.getX());
-                    Card card = row.getCards().get(cardAttacked.getY());
-                    row.getCards().remove(cardAttacked.getY());
-                }
-            }
-            case "useAttackHero" -> {
-                Card cardToAttack = board.getCardAtPosition(cardAttacker.getX(),
-                        cardAttacker.getY());
-                Player opponent = game.getOpponent(player);
-
-                if (cardToAttack.isFrozen) {
-                    node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                    node.put("error", "Attacker card is frozen.");
-                    return node;
-                }
+        int healthBefore = cardToBeAttacked.getHealth();
+        cardToBeAttacked.setHealth(cardToBeAttacked.getHealth()
+                - cardToAttack.getAttackDamage());
+        cardToAttack.setAttackedRound(stats.getNumRound());
+        if (CardAnalytics.ENABLED) {
+            recordHit(cardToAttack, cardToBeAttacked, healthBefore);
+        }
+        Deck attackedRow = board.getBoard().get(cardAttacked.getX());
+        if (cardToBeAttacked.getHealth() <= 0) {
+            attackedRow.removeCard(cardAttacked.getY());
+        } else {
+            attackedRow.bumpVersion();
+        }
+        return Outcome.SUCCESS;
+    }
 
-                if (cardToAttack.hasAttacked) {
-                    node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                    node.put("error", "Attacker card has already attacked this turn.");
-                    return node;
-                }
-                if (game.verifyTankExists(opponent)) {
-                    node.put("cardAttacker", cardAttacker.getCoordinatesObject(mapper));
-                    node.put("error", "Attacked card is not of type 'Tank'.");
-                    return node;
-                }
+    private Outcome cardUsesAbility(final Game game, final Player player, final Stats stats) {
+        GameBoard board = game.getBoard();
+        Card cardToAttack = board.getCardAtPosition(cardAttacker.getX(), cardAttacker.getY());
+        Card cardToBeAttacked = board.getCardAtPosition(cardAttacked.getX(),
+                cardAttacked.getY());
+        Player opponent = game.getOpponent(player);
 
-                opponent.getHero().setHealth(opponent.getHero().getHealth()
-                        - cardToAttack.getAttackDamage());
-                cardToAttack.hasAttacked = true;
-
-                if (opponent.getHero().getHealth() <= 0) {
-                    stats.setTotalGamesPlayed(stats.getTotalGamesPlayed() + 1);
-                    node.remove("command");
-                    if (stats.getCurrentPlayer() == 1) {
-                        node.put("gameEnded", "Player one killed the enemy hero.");
-                        stats.setPlayer1Wins(stats.getPlayer1Wins() + 1);
-                    } else {
-                        node.put("gameEnded", "Player two killed the enemy hero.");
-                        stats.setPlayer2Wins(stats.getPlayer2Wins() + 1);
-                    }
-                    return node;
-                }
+        if (cardToAttack.isFrozen(stats.getNumTurn())) {
+            return Outcome.FROZEN;
+        }
+
+        if (cardToAttack.hasAttacked(stats.getNumRound())) {
+            return Outcome.ALREADY_ATTACKED;
+        }
+
+        if (cardToAttack.getName().equals("Disciple")) {
+            if (game.verifyEnemyCoordinates(cardAttacked, player)) {
+                return Outcome.NOT_OWN_CARD;
+            }
+        } else {
+            if (!game.verifyEnemyCoordinates(cardAttacked, player)) {
+                return Outcome.NOT_ENEMY_CARD;
             }
-            case "useHeroAbility" -> {
-                if (player.getHero().getMana() > player.getMana()) {
-                    node.put("affectedRow", affectedRow);
-                    node.put("error", "Not enough mana to use hero's ability.");
-                    return node;
-                }
 
-                if (player.getHero().hasAttacked) {
-                    node.put("affectedRow", affectedRow);
-                    node.put("error", "Hero has already attacked this turn.");
-                    return node;
-                }
+            if (!cardToBeAttacked.isTank() && game.verifyTankExists(opponent)) {
+                return Outcome.NOT_TANK;
+            }
+        }
 
-                if (player.getHero().getName().equals("Lord Royce")
-                        || player.getHero().getName().equals("Empress Thorina")) {
-                    if (!game.verifyRowBelongsToEnemy(affectedRow, player)) {
-                        node.put("affectedRow", affectedRow);
-                        node.put("error", "Selected row does not belong to the enemy.");
-                        return node;
-                    }
-                } else {
-                    if (game.verifyRowBelongsToEnemy(affectedRow, player)) {
-                        node.put("affectedRow", affectedRow);
-                        node.put("error", "Selected row does not belong to the current player.");
-                        return node;
-                    }
-                }
+        int healthBefore = cardToBeAttacked.getHealth();
+        cardToAttack.useAbility(cardToBeAttacked);
+        cardToAttack.setAttackedRound(stats.getNumRound());
+        if (CardAnalytics.ENABLED) {
+            CardAnalytics.record(cardToAttack.getAnalyticsId(), CardAnalytics.ABILITIES_USED, 1);
+            recordHit(cardToAttack, cardToBeAttacked, healthBefore);
+        }
+        board.getBoard().get(cardAttacker.getX()).bumpVersion();
+
+        Deck attackedRow = board.getBoard().get(cardAttacked.getX());
+        if (cardToBeAttacked.getHealth() <= 0) {
+            attackedRow.removeCard(cardAttacked.getY());
+        } else {
+            attackedRow.bumpVersion();
+        }
+        return Outcome.SUCCESS;
+    }
+
+    private Outcome useAttackHero(final Game game, final Player player, final Stats stats) {
+        Card cardToAttack = game.getBoard().getCardAtPosition(cardAttacker.getX(),
+                cardAttacker.getY());
+        Player opponent = game.getOpponent(player);
+
+        if (cardToAttack.isFrozen(stats.getNumTurn())) {
+            return Outcome.FROZEN;
+        }
+
+        if (cardToAttack.hasAttacked(stats.getNumRound())) {
+            return Outcome.ALREADY_ATTACKED;
+        }
+        if (game.verifyTankExists(opponent)) {
+            return Outcome.NOT_TANK;
+        }
+
+        int healthBefore = opponent.getHero().getHealth();
+        opponent.getHero().setHealth(opponent.getHero().getHealth()
+                - cardToAttack.getAttackDamage());
+        cardToAttack.setAttackedRound(stats.getNumRound());
+        if (CardAnalytics.ENABLED) {
+            recordHit(cardToAttack, opponent.getHero(), healthBefore);
+        }
+
+        if (opponent.getHero().getHealth() > 0) {
+            return Outcome.SUCCESS;
+        }
+
+        GameEndEvent event = new GameEndEvent();
+        stats.setTotalGamesPlayed(stats.getTotalGamesPlayed() + 1);
+        Outcome outcome;
+        if (stats.getCurrentPlayer() == 1) {
+            stats.setPlayer1Wins(stats.getPlayer1Wins() + 1);
+            outcome = Outcome.PLAYER_ONE_WON;
+        } else {
+            stats.setPlayer2Wins(stats.getPlayer2Wins() + 1);
+            outcome = Outcome.PLAYER_TWO_WON;
+        }
+        if (event.shouldCommit()) {
+            event.finish(stats.getCurrentPlayer(), stats.getNumRound(),
+                    stats.getTotalGamesPlayed());
+        }
+        if (CardAnalytics.ENABLED) {
+            recordGameEnd(game, player);
+        }
+        return outcome;
+    }
 
-                player.getHero().useAbility(board.getBoard().get(affectedRow));
-                player.getHero().hasAttacked = true;
-                player.setMana(player.getMana() - player.getHero().getMana());
+    private Outcome useHeroAbility(final Game game, final Player player, final Stats stats) {
+        Hero hero = player.getHero();
+        if (hero.getMana() > player.getMana()) {
+            return Outcome.NOT_ENOUGH_MANA_FOR_HERO;
+        }
+
+        if (hero.hasAttacked(stats.getNumRound())) {
+            return Outcome.HERO_ALREADY_ATTACKED;
+        }
+
+        if (hero.getName().equals("Lord Royce") || hero.getName().equals("Empress Thorina")) {
+            if (!game.verifyRowBelongsToEnemy(affectedRow, player)) {
+                return Outcome.NOT_ENEMY_ROW;
             }
-            case "endPlayerTurn" -> {
-                game.setCardsNotFrozen(board, player);
-                if (stats.getCurrentPlayer() == 1) {
-                    stats.setCurrentPlayer(2);
-                } else {
-                    stats.setCurrentPlayer(1);
-                }
+        } else {
+            if (game.verifyRowBelongsToEnemy(affectedRow, player)) {
+                return Outcome.NOT_OWN_ROW;
+            }
+        }
 
-                if (stats.getCurrentPlayer() == game.getStartingPlayer()) {
-                    stats.setNumRound(stats.getNumRound() + 1);
-                    game.prepareRound(stats.getNumRound());
+        Deck row = game.getBoard().getBoard().get(affectedRow);
+        int sizeBefore = row.getSize();
+        hero.useAbility(row, stats.getNumTurn());
+        hero.setAttackedRound(stats.getNumRound());
+        player.setMana(player.getMana() - hero.getMana());
+        if (CardAnalytics.ENABLED) {
+            CardAnalytics.record(hero.getAnalyticsId(), CardAnalytics.ABILITIES_USED, 1);
+            CardAnalytics.record(hero.getAnalyticsId(), CardAnalytics.KILLS,
+                    sizeBefore - row.getSize());
+        }
+        return Outcome.SUCCESS;
+    }
+
+    private Outcome endPlayerTurn(final Game game, final Stats stats) {
+        if (CardAnalytics.ENABLED) {
+            for (Deck row : game.getBoard().getBoard()) {
+                for (Card card : row.getCards()) {
+                    CardAnalytics.record(card.getAnalyticsId(), CardAnalytics.TURNS_ON_BOARD, 1);
                 }
             }
-            default -> {
-                node.put("error", "Invalid command.");
-                return node;
+        }
+        stats.setNumTurn(stats.getNumTurn() + 1);
+        if (stats.getCurrentPlayer() == 1) {
+            stats.setCurrentPlayer(2);
+        } else {
+            stats.setCurrentPlayer(1);
+        }
+
+        if (stats.getCurrentPlayer() == game.getStartingPlayer()) {
+            stats.setNumRound(stats.getNumRound() + 1);
+            game.prepareRound(stats.getNumRound());
+        }
+        return Outcome.SUCCESS;
+    }
+
+    /**
+     * Records the damage dealt by a card to another card or hero, and whether it was killed.
+     */
+    private static void recordHit(final Card source, final Card target, final int healthBefore) {
+        int damage = healthBefore - Math.max(target.getHealth(), 0);
+        if (damage > 0) {
+            CardAnalytics.record(source.getAnalyticsId(), CardAnalytics.DAMAGE_DEALT, damage);
+            CardAnalytics.record(target.getAnalyticsId(), CardAnalytics.DAMAGE_TAKEN, damage);
+        }
+        if (target.getHealth() <= 0) {
+            CardAnalytics.record(source.getAnalyticsId(), CardAnalytics.KILLS, 1);
+        }
+    }
+
+    /**
+     * Records the end of a game for both heroes and every card left on the board, and the
+     * win for the winner's hero and cards.
+     */
+    private static void recordGameEnd(final Game game, final Player winner) {
+        for (int idx = 1; idx <= 2; idx++) {
+            Hero hero = game.getPlayer(idx).getHero();
+            CardAnalytics.record(hero.getAnalyticsId(), CardAnalytics.GAMES_ENDED, 1);
+        }
+        CardAnalytics.record(winner.getHero().getAnalyticsId(), CardAnalytics.GAMES_WON, 1);
+        for (int x = 0; x < GlobalVariables.ROWS_NUMBER; x++) {
+            boolean won = !game.verifyRowBelongsToEnemy(x, winner);
+            for (Card card : game.getBoard().getBoard().get(x).getCards()) {
+                CardAnalytics.record(card.getAnalyticsId(), CardAnalytics.GAMES_ENDED, 1);
+                if (won) {
+                    CardAnalytics.record(card.getAnalyticsId(), CardAnalytics.GAMES_WON, 1);
+                }
             }
         }
-        return null;
     }
 }
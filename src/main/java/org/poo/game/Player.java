@@ -31,8 +31,7 @@ public class Player {
      */
     public void drawCard() {
         if (deck.getSize() > 0) {
-            this.getHand().getCards().add(this.getDeck().getCards().get(0));
-            this.getDeck().getCards().remove(0);
+            this.getHand().addCard(this.getDeck().removeCard(0));
         }
     }
 
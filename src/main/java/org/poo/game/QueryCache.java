@@ -0,0 +1,58 @@
+package org.poo.game;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Remembers the output of the debug queries that render whole zones of the game (decks,
+ * hands, heroes and the board), together with the version of the zone they were built from.
+ * A repeated query on an unchanged zone returns the remembered output without walking
+ * any cards.
+ */
+final class QueryCache {
+    static final int PLAYER_DECK = 0;
+    static final int CARDS_IN_HAND = 2;
+    static final int PLAYER_HERO = 4;
+    static final int CARDS_ON_TABLE = 6;
+    static final int FROZEN_CARDS = 7;
+    private static final int SLOTS = 8;
+
+    private final long[] versions = new long[SLOTS];
+    private final ObjectNode[] results = new ObjectNode[SLOTS];
+
+    /**
+     * Computes the slot of a per-player query.
+     *
+     * @param query     the first slot of the query, one of the constants of this class
+     * @param playerIdx the player index (1 or 2)
+     * @return the slot holding the query of that player
+     */
+    static int playerSlot(final int query, final int playerIdx) {
+        return query + playerIdx - 1;
+    }
+
+    /**
+     * Retrieves the remembered output of a query.
+     *
+     * @param slot    the slot of the query
+     * @param version the current version of the zone rendered by the query
+     * @return the remembered output, or null if there is none for this version
+     */
+    ObjectNode get(final int slot, final long version) {
+        if (results[slot] != null && versions[slot] == version) {
+            return results[slot];
+        }
+        return null;
+    }
+
+    /**
+     * Remembers the output of a query.
+     *
+     * @param slot    the slot of the query
+     * @param version the version of the zone the output was built from
+     * @param result  the output of the query
+     */
+    void put(final int slot, final long version, final ObjectNode result) {
+        versions[slot] = version;
+        results[slot] = result;
+    }
+}
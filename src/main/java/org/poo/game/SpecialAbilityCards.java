@@ -62,7 +62,7 @@ class Miraj extends SpecialAbilityCards {
         int aux;
         aux = attackedCard.getHealth();
         attackedCard.setHealth(health);
-        health = aux;
+        setHealth(aux);
     }
 }
 
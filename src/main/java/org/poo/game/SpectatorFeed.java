@@ -0,0 +1,95 @@
+package org.poo.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Publishes an immutable {@link GameView} of a game after every action that changes its
+ * state. Readers get the latest view with {@link #latest()}, a single volatile read, so any
+ * number of them may follow the game without locks and without ever blocking it. A zone
+ * (hero, hand or row) is only pictured again when its version has changed since the last
+ * view, and cards keep their own picture until they change, so consecutive views share
+ * most of their objects. The time spent publishing is measured.
+ */
+public final class SpectatorFeed {
+    private final AtomicReference<GameView> view = new AtomicReference<>();
+    private final int[] heroVersions = new int[2];
+    private final int[] handVersions = new int[2];
+    private final int[] rowVersions = new int[GlobalVariables.ROWS_NUMBER];
+    private final GameView.CardView[] heroes = new GameView.CardView[2];
+    private final List<List<GameView.CardView>> hands = new ArrayList<>(
+            Collections.nCopies(2, null));
+    private final List<List<GameView.CardView>> rows = new ArrayList<>(
+            Collections.nCopies(GlobalVariables.ROWS_NUMBER, null));
+    private long publishCount;
+    private long publishNanos;
+
+    /**
+     * Gets the latest view of the game.
+     *
+     * @return the latest {@link GameView}, or null if none was published yet
+     */
+    public GameView latest() {
+        return view.get();
+    }
+
+    /**
+     * Pictures the current state of the game and publishes it. Must be called by the thread
+     * running the game.
+     *
+     * @param game the {@link Game} to picture
+     */
+    void publish(final Game game) {
+        long start = System.nanoTime();
+        int[] mana = new int[2];
+        int[] deckSizes = new int[2];
+        for (int i = 0; i < 2; i++) {
+            Player player = game.getPlayer(i + 1);
+            mana[i] = player.getMana();
+            deckSizes[i] = player.getDeck().getSize();
+
+            Hero hero = player.getHero();
+            if (heroes[i] == null || heroVersions[i] != hero.getVersion()) {
+                heroes[i] = hero.getView();
+                heroVersions[i] = hero.getVersion();
+            }
+            Deck hand = player.getHand();
+            if (hands.get(i) == null || handVersions[i] != hand.getVersion()) {
+                hands.set(i, GameView.viewOf(hand.getCards()));
+                handVersions[i] = hand.getVersion();
+            }
+        }
+        for (int x = 0; x < rows.size(); x++) {
+            Deck row = game.getBoard().getBoard().get(x);
+            if (rows.get(x) == null || rowVersions[x] != row.getVersion()) {
+                rows.set(x, GameView.viewOf(row.getCards()));
+                rowVersions[x] = row.getVersion();
+            }
+        }
+
+        view.set(new GameView(game.getStats(), mana, heroes.clone(), deckSizes,
+                List.copyOf(hands), List.copyOf(rows)));
+        publishNanos += System.nanoTime() - start;
+        publishCount++;
+    }
+
+    /**
+     * Gets the number of views published so far.
+     *
+     * @return the number of published views
+     */
+    public long getPublishCount() {
+        return publishCount;
+    }
+
+    /**
+     * Gets the total time spent publishing views, read by the thread running the game.
+     *
+     * @return the publication time, in nanoseconds
+     */
+    public long getPublishNanos() {
+        return publishNanos;
+    }
+}
@@ -10,6 +10,7 @@ public class Stats {
     private int player1Wins;
     private int player2Wins;
     private int numRound;
+    private int numTurn;
 
     /**
      * Gets the current round number.
@@ -29,6 +30,24 @@ public class Stats {
         this.numRound = numRound;
     }
 
+    /**
+     * Gets the number of turns ended so far in the current game.
+     *
+     * @return the number of ended turns
+     */
+    public int getNumTurn() {
+        return numTurn;
+    }
+
+    /**
+     * Sets the number of turns ended so far in the current game.
+     *
+     * @param numTurn the number of ended turns to set
+     */
+    public void setNumTurn(final int numTurn) {
+        this.numTurn = numTurn;
+    }
+
     /**
      * Gets the index of the current player (1 or 2).
      *
@@ -19,10 +19,11 @@ public class EmpressThorina extends Hero {
      * Applies the "Low Blow" ability: destroys the card with the highest health
      * in the specified row.
      *
-     * @param row the {@link Deck} representing the row where the ability is used.
+     * @param row  the {@link Deck} representing the row where the ability is used.
+     * @param turn the number of turns ended so far in the game
      */
     @Override
-    public void useAbility(final Deck row) {
+    public void useAbility(final Deck row, final int turn) {
         int maxHealth = 0;
         Card maxCard = null;
         for (Card card : row.getCards()) {
@@ -31,6 +32,6 @@ public class EmpressThorina extends Hero {
                 maxCard = card;
             }
         }
-        row.getCards().remove(maxCard);
+        row.removeCard(maxCard);
     }
 }
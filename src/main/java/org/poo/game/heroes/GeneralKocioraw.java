@@ -18,12 +18,14 @@ public class GeneralKocioraw extends Hero {
     /**
      * Applies the "Blood Thirst" ability: all cards in the specified row receive +1 attack damage.
      *
-     * @param row the {@link Deck} representing the row where the ability is used.
+     * @param row  the {@link Deck} representing the row where the ability is used.
+     * @param turn the number of turns ended so far in the game
      */
     @Override
-    public void useAbility(final Deck row) {
+    public void useAbility(final Deck row, final int turn) {
         for (Card card : row.getCards()) {
             card.setAttackDamage(card.getAttackDamage() + 1);
         }
+        row.bumpVersion();
     }
 }
@@ -17,12 +17,14 @@ public class KingMudface extends Hero {
     /**
      * Applies the "Earth Born" ability: all cards in the specified row receive +1 health.
      *
-     * @param row the {@link Deck} representing the row where the ability is used.
+     * @param row  the {@link Deck} representing the row where the ability is used.
+     * @param turn the number of turns ended so far in the game
      */
     @Override
-    public void useAbility(final Deck row) {
+    public void useAbility(final Deck row, final int turn) {
         for (Card card : row.getCards()) {
             card.setHealth(card.getHealth() + 1);
         }
+        row.bumpVersion();
     }
 }
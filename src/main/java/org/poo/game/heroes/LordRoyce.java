@@ -17,12 +17,14 @@ public class LordRoyce extends Hero {
     /**
      * Applies the "Sub-Zero" ability: all cards in the specified row become frozen.
      *
-     * @param row the {@link Deck} representing the row where the ability is used.
+     * @param row  the {@link Deck} representing the row where the ability is used.
+     * @param turn the number of turns ended so far in the game
      */
     @Override
-    public void useAbility(final Deck row) {
+    public void useAbility(final Deck row, final int turn) {
         for (Card card : row.getCards()) {
-            card.setIsFrozen(true);
+            card.freeze(turn);
         }
+        row.bumpVersion();
     }
 }
@@ -0,0 +1,304 @@
+package org.poo.main;
+
+import org.poo.checker.CheckerConstants;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes a directory of input files with several worker JVMs. Every worker is a
+ * {@link Daemon} launched with {@link ProcessBuilder} and fed one job at a time through its
+ * standard input, so files are handed out dynamically to whichever worker is free. A worker
+ * that dies, or does not report on its file within the timeout, is killed and restarted,
+ * and its file is given to a worker again, up to {@value #MAX_ATTEMPTS} times. Outputs are
+ * written to a single directory, named as {@link Main} names them, and the timings reported
+ * by all workers are merged into one report on the standard output; a report that cannot
+ * be read fails its file. Interrupting the coordinator kills the workers and leaves the
+ * files they did not finish unprocessed, without failing them.
+ *
+ * <p>Workers run with the same class path as the coordinator, with the options of the
+ * {@code gwentstone.workerOpts} system property (for instance {@code -Xmx64m}) and with
+ * every other {@code gwentstone.*} system property of the coordinator. The timeout is
+ * given in seconds by the {@code gwentstone.workerTimeout} system property, and defaults to
+ * {@value #DEFAULT_TIMEOUT_SECONDS} seconds.
+ */
+public final class Coordinator {
+    public static final String WORKER_OPTS = "gwentstone.workerOpts";
+    public static final String WORKER_TIMEOUT = "gwentstone.workerTimeout";
+
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long DEFAULT_TIMEOUT_SECONDS = 600;
+    private static final long TIMEOUT_SECONDS = Long.getLong(WORKER_TIMEOUT,
+            DEFAULT_TIMEOUT_SECONDS);
+    private static final int OK_FIELDS = 4;
+    private static final String END_OF_REPORTS = "\n";
+    private static final String OUT_PREFIX = "out_";
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final ConcurrentLinkedQueue<Job> jobs = new ConcurrentLinkedQueue<>();
+    private final List<String> failures = new ArrayList<>();
+
+    /**
+     * A file to process.
+     */
+    private static final class Job {
+        private final File input;
+        private final File output;
+        private int attempts;
+
+        Job(final File input, final File output) {
+            this.input = input;
+            this.output = output;
+        }
+    }
+
+    /**
+     * A worker process, together with the work it has done.
+     */
+    private final class Worker {
+        private final int id;
+        private Process process;
+        private PrintWriter jobsOut;
+        private BlockingQueue<String> reports;
+        private int files;
+        private double busyMillis;
+        private int restarts;
+
+        Worker(final int id) {
+            this.id = id;
+        }
+
+        void run() {
+            for (Job job = jobs.poll(); job != null; job = jobs.poll()) {
+                String report;
+                try {
+                    if (process == null) {
+                        start();
+                    }
+                    jobsOut.println(job.input.getPath() + Daemon.SEPARATOR
+                            + job.output.getPath());
+                    report = reports.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+                } catch (IOException e) {
+                    report = END_OF_REPORTS;
+                } catch (InterruptedException e) {
+                    // the coordinator is stopping: the job is neither done nor failed
+                    Thread.currentThread().interrupt();
+                    process.destroyForcibly();
+                    process = null;
+                    jobs.add(job);
+                    return;
+                }
+
+                if (report == null || report.equals(END_OF_REPORTS)) {
+                    String problem = report == null ? "timed out" : "crashed";
+                    if (report == null) {
+                        process.destroyForcibly();
+                    }
+                    stop();
+                    restarts++;
+                    job.attempts++;
+                    if (job.attempts < MAX_ATTEMPTS) {
+                        jobs.add(job);
+                    } else {
+                        fail(job.input + ": worker " + problem + ", " + MAX_ATTEMPTS
+                                + " attempts");
+                    }
+                } else if (report.startsWith("ok ")) {
+                    double millis = reportedMillis(report);
+                    if (millis < 0) {
+                        fail(job.input + ": unreadable report " + report);
+                    } else {
+                        files++;
+                        busyMillis += millis;
+                    }
+                } else {
+                    fail(report);
+                }
+            }
+            if (process != null) {
+                jobsOut.println("quit");
+                stop();
+            }
+        }
+
+        private void start() throws IOException {
+            ArrayList<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            String opts = System.getProperty(WORKER_OPTS, "").trim();
+            if (!opts.isEmpty()) {
+                command.addAll(Arrays.asList(opts.split("\\s+")));
+            }
+            for (String name : System.getProperties().stringPropertyNames()) {
+                if (name.startsWith("gwentstone.") && !name.equals(WORKER_OPTS)) {
+                    command.add("-D" + name + "=" + System.getProperty(name));
+                }
+            }
+            command.add("-cp");
+            command.add(System.getProperty("java.class.path"));
+            command.add(Daemon.class.getName());
+
+            process = new ProcessBuilder(command)
+                    .redirectError(ProcessBuilder.Redirect.INHERIT)
+                    .start();
+            jobsOut = new PrintWriter(new OutputStreamWriter(process.getOutputStream(),
+                    StandardCharsets.UTF_8), true);
+            BufferedReader reportsIn = new BufferedReader(new InputStreamReader(
+                    process.getInputStream(), StandardCharsets.UTF_8));
+            BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+            reports = queue;
+
+            // reports are read on their own thread, so that waiting for one can time out
+            Thread reader = new Thread(() -> {
+                try (reportsIn) {
+                    for (String line = reportsIn.readLine(); line != null;
+                         line = reportsIn.readLine()) {
+                        queue.add(line);
+                    }
+                } catch (IOException e) {
+                    // the worker is gone
+                } finally {
+                    queue.add(END_OF_REPORTS);
+                }
+            }, "gwentstone-worker-" + id + "-reports");
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        private void stop() {
+            if (process == null) {
+                return;
+            }
+            jobsOut.close();
+            try {
+                if (!process.waitFor(TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    process.destroyForcibly();
+                }
+            } catch (InterruptedException e) {
+                process.destroyForcibly();
+                Thread.currentThread().interrupt();
+            }
+            process = null;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("worker %d: %d files, %.2f ms busy, %d restarts", id, files,
+                    busyMillis, restarts);
+        }
+    }
+
+    private Coordinator() {
+    }
+
+    /**
+     * @param args {@code [workers] [inputDir] [outputDir]}, by default one worker per core,
+     *             the checker's input and result directories
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void main(final String[] args) throws IOException {
+        int workers = Runtime.getRuntime().availableProcessors();
+        if (args.length > 0) {
+            workers = Integer.parseInt(args[0]);
+        }
+        File inputDir = new File(args.length > 1 ? args[1] : CheckerConstants.TESTS_PATH);
+        File outputDir = new File(args.length > 2 ? args[2] : CheckerConstants.RESULT_PATH);
+        if (!run(inputDir, outputDir, workers)) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Processes every JSON file of a directory with the given number of workers.
+     *
+     * @param inputDir  the directory holding the input files
+     * @param outputDir the directory receiving the output files
+     * @param workers   the number of worker processes
+     * @return whether every file was processed successfully
+     * @throws IOException in case of exceptions to creating the output directory
+     */
+    public static boolean run(final File inputDir, final File outputDir, final int workers)
+            throws IOException {
+        Files.createDirectories(outputDir.toPath());
+        Coordinator coordinator = new Coordinator();
+        File[] inputs = Objects.requireNonNull(inputDir.listFiles((dir, name) ->
+                name.endsWith(".json")));
+        // biggest files first, so that no worker is left with a big file at the end
+        Arrays.sort(inputs, (first, second) -> Long.compare(second.length(), first.length()));
+        for (File input : inputs) {
+            coordinator.jobs.add(new Job(input, new File(outputDir,
+                    OUT_PREFIX + input.getName())));
+        }
+
+        long start = System.nanoTime();
+        ArrayList<Worker> pool = new ArrayList<>();
+        ArrayList<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < Math.min(workers, inputs.length); i++) {
+            Worker worker = coordinator.new Worker(i);
+            Thread thread = new Thread(worker::run, "gwentstone-worker-" + i);
+            pool.add(worker);
+            threads.add(thread);
+            thread.start();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            threads.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the workers", e);
+        }
+
+        double busyMillis = 0;
+        int files = 0;
+        for (Worker worker : pool) {
+            System.out.println(worker);
+            busyMillis += worker.busyMillis;
+            files += worker.files;
+        }
+        System.out.printf("total: %d of %d files, %.2f ms busy, %.2f ms wall%n", files,
+                inputs.length, busyMillis, (System.nanoTime() - start) / NANOS_PER_MILLI);
+        synchronized (coordinator.failures) {
+            coordinator.failures.forEach(failure -> System.out.println("failed: " + failure));
+            return coordinator.failures.isEmpty() && files == inputs.length;
+        }
+    }
+
+    /**
+     * Reads the time of an {@code ok <input> <millis> ms} report.
+     *
+     * @return the time in milliseconds, or -1 if the report is malformed
+     */
+    private static double reportedMillis(final String report) {
+        String[] fields = report.split(" ");
+        if (fields.length < OK_FIELDS) {
+            return -1;
+        }
+        try {
+            return Double.parseDouble(fields[fields.length - 2]);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void fail(final String failure) {
+        synchronized (failures) {
+            failures.add(failure);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package org.poo.main;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Long-running mode processing input files on request, so that the JVM, the object mappers
+ * and the engine stay warm between files. Every job line holds an input path and an output
+ * path separated by a tab, so that paths may contain spaces; jobs are read from the
+ * standard input or, with {@code --pipe <path>}, from a named pipe that is reopened whenever
+ * its writer closes it (any other kind of file is read once).
+ * With {@code --watch <inputDir> <outputDir>}, every JSON file created or modified in the
+ * input directory is also processed into a file of the same name in the output directory,
+ * once its size and modification time have stopped changing; the daemon then keeps running
+ * after the end of its jobs, until a {@code quit} line or a signal. Jobs run one at a time,
+ * in the order they arrive, and each of them reports a line on the standard output. The line
+ * {@code quit} stops the daemon, and so does an {@link Error} (such as running out of memory)
+ * thrown by a job.
+ */
+public final class Daemon {
+    /**
+     * Separates the input and the output path of a job line.
+     */
+    static final String SEPARATOR = "\t";
+
+    private static final String QUIT = "quit";
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final long SETTLE_MILLIS = 200;
+
+    private final ExecutorService worker = Executors.newSingleThreadExecutor();
+    private Thread watchThread;
+
+    /**
+     * for coding style
+     */
+    private Daemon() {
+    }
+
+    /**
+     * @param args {@code [--pipe <path>] [--watch <inputDir> <outputDir>]}
+     * @throws IOException in case of exceptions to reading the jobs
+     * @throws InterruptedException if interrupted while waiting for watched files
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        Path pipe = null;
+        Path watchedDir = null;
+        Path outputDir = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--pipe") && i + 1 < args.length) {
+                pipe = Paths.get(args[++i]);
+            } else if (args[i].equals("--watch") && i + 2 < args.length) {
+                watchedDir = Paths.get(args[++i]);
+                outputDir = Paths.get(args[++i]);
+            } else {
+                System.err.println("Usage: Daemon [--pipe <path>] [--watch <inputDir> "
+                        + "<outputDir>]");
+                return;
+            }
+        }
+
+        Daemon daemon = new Daemon();
+        WatchService watcher = null;
+        if (watchedDir != null) {
+            watcher = daemon.watch(watchedDir, outputDir);
+        }
+        try {
+            boolean quit;
+            if (pipe == null) {
+                quit = daemon.readJobs(new BufferedReader(new InputStreamReader(System.in,
+                        StandardCharsets.UTF_8)));
+            } else {
+                // opening a named pipe waits for a writer, a regular file would be reread
+                boolean fifo = Files.readAttributes(pipe, BasicFileAttributes.class).isOther();
+                quit = false;
+                boolean ended = false;
+                while (!ended) {
+                    try (BufferedReader reader = Files.newBufferedReader(pipe)) {
+                        quit = daemon.readJobs(reader);
+                        ended = quit || !fifo;
+                    }
+                }
+            }
+            if (!quit && watcher != null) {
+                // the end of the jobs (a closed stdin, for instance) does not stop the watch
+                daemon.watchThread.join();
+            }
+        } finally {
+            if (watcher != null) {
+                watcher.close();
+            }
+            daemon.worker.close();
+        }
+    }
+
+    /**
+     * Submits the jobs read from the given source until its end or a {@code quit} line.
+     *
+     * @return whether a {@code quit} line was read
+     */
+    private boolean readJobs(final BufferedReader reader) throws IOException {
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.trim().equals(QUIT)) {
+                return true;
+            }
+            String[] paths = line.split(SEPARATOR, -1);
+            if (paths.length == 2 && !paths[0].isEmpty() && !paths[1].isEmpty()) {
+                submit(new File(paths[0]), new File(paths[1]));
+            } else if (!line.isBlank()) {
+                System.out.println("error " + line + ": expected <input><tab><output>");
+            }
+        }
+        return false;
+    }
+
+    private void submit(final File inputFile, final File outputFile) {
+        worker.execute(() -> {
+            long start = System.nanoTime();
+            try {
+                Main.process(inputFile, outputFile);
+                // the report is read by Coordinator, whatever the locale of the daemon
+                System.out.println(String.format(Locale.ROOT, "ok %s %.2f ms", inputFile,
+                        (System.nanoTime() - start) / NANOS_PER_MILLI));
+            } catch (IOException | RuntimeException e) {
+                System.out.println("error " + inputFile + ": " + e);
+            } catch (Error e) {
+                // the state of the JVM is unknown, let whoever started the daemon restart it
+                e.printStackTrace();
+                Runtime.getRuntime().halt(1);
+            }
+        });
+    }
+
+    /**
+     * Starts a thread processing the JSON files created or modified in a directory. A file
+     * is processed once two looks at it, {@value #SETTLE_MILLIS} ms apart, find the same
+     * size and modification time, so that files still being written are left alone; it is
+     * only processed again once one of them has changed.
+     */
+    private WatchService watch(final Path dir, final Path outputDir) throws IOException {
+        Files.createDirectories(outputDir);
+        WatchService watcher = FileSystems.getDefault().newWatchService();
+        dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+
+        watchThread = new Thread(() -> {
+            // the files waiting to settle, with their state at the last look (null before it)
+            HashMap<Path, List<Object>> pending = new HashMap<>();
+            HashMap<Path, List<Object>> processed = new HashMap<>();
+            long nextLook = 0;
+            try {
+                while (true) {
+                    WatchKey key = pending.isEmpty() ? watcher.take()
+                            : watcher.poll(SETTLE_MILLIS, TimeUnit.MILLISECONDS);
+                    if (key != null) {
+                        for (WatchEvent<?> event : key.pollEvents()) {
+                            if (event.context() instanceof Path name
+                                    && name.toString().endsWith(".json")) {
+                                pending.putIfAbsent(dir.resolve(name), null);
+                            }
+                        }
+                        key.reset();
+                    }
+                    if (System.currentTimeMillis() < nextLook) {
+                        continue;
+                    }
+                    nextLook = System.currentTimeMillis() + SETTLE_MILLIS;
+                    Iterator<Map.Entry<Path, List<Object>>> it = pending.entrySet().iterator();
+                    while (it.hasNext()) {
+                        Map.Entry<Path, List<Object>> entry = it.next();
+                        List<Object> state = stateOf(entry.getKey());
+                        if (state == null) {
+                            it.remove();
+                        } else if (!state.equals(entry.getValue())) {
+                            entry.setValue(state);
+                        } else {
+                            it.remove();
+                            Path file = entry.getKey();
+                            if (!state.equals(processed.put(file, state))) {
+                                submit(file.toFile(),
+                                        outputDir.resolve(file.getFileName()).toFile());
+                            }
+                        }
+                    }
+                }
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                // the daemon is stopping
+            }
+        }, "gwentstone-watch");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        return watcher;
+    }
+
+    /**
+     * @return the size and modification time of a file, or null if it cannot be read
+     */
+    private static List<Object> stateOf(final Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file,
+                    BasicFileAttributes.class);
+            return List.of(attributes.size(), attributes.lastModifiedTime());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
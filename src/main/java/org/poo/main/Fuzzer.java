@@ -0,0 +1,687 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.fileio.ActionsInput;
+import org.poo.fileio.Coordinates;
+import org.poo.fileio.DecksInput;
+import org.poo.fileio.GameInput;
+import org.poo.fileio.Input;
+import org.poo.fileio.InputModule;
+import org.poo.game.Game;
+import org.poo.game.GameSnapshot;
+import org.poo.game.LegalActions;
+import org.poo.game.Stats;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Differential fuzzer checking that the alternative engines produce exactly the output of
+ * the reference one: Jackson's reflective readers followed by {@link Game},
+ * {@code PlayAction} and {@code DebugAction}, as {@link Main} plays a file by default.
+ * Every case is a random input, in the format of the {@code input/} files, generated from a
+ * seed: random decks and heroes, and games mixing legal moves, debug queries and actions
+ * with random, often invalid, operands. The outputs are compared node by node; a case on
+ * which an engine disagrees with the reference is shrunk, by removing games, actions, cards
+ * and decks for as long as the disagreement remains, and written to the failure directory.
+ * Before the random cases, every engine is given an input whose first game throws, followed
+ * by enough games to fill the queues of {@link GamePipeline}, and must fail as the
+ * reference does within {@value #FAILURE_SECONDS} seconds.
+ *
+ * <p>Cases are spread over one thread per core. The candidate engines are:
+ * <ul>
+ *     <li>{@code streaming}: the readers of {@link InputModule};</li>
+ *     <li>{@code selective}: {@link SelectiveInput};</li>
+ *     <li>{@code runner}: {@link GameRunner};</li>
+ *     <li>{@code snapshot}: a game restored from a {@link GameSnapshot} before every
+ *     action;</li>
+ *     <li>{@code pipeline}: {@link GamePipeline}, only when asked for, as it reports on the
+ *     standard error after every input.</li>
+ * </ul>
+ */
+public final class Fuzzer {
+    private static final String[] DEFAULT_ENGINES = {"streaming", "selective", "runner",
+        "snapshot"};
+    private static final String[] MINIONS = {"Sentinel", "Berserker", "Goliath", "Warden",
+        "The Ripper", "Miraj", "The Cursed One", "Disciple"};
+    private static final String[] HEROES = {"Lord Royce", "Empress Thorina", "King Mudface",
+        "General Kocioraw"};
+    private static final String[] COLORS = {"Red", "Blue", "Green", "Yellow", "Purple",
+        "Brown", "Black", "White", "Pink", "Orange", "Grey"};
+    private static final String[] QUERIES = {"getCardsInHand", "getPlayerDeck",
+        "getPlayerHero", "getPlayerMana", "getPlayerTurn", "getCardsOnTable",
+        "getFrozenCardsOnTable", "getCardAtPosition", "getTotalGamesPlayed",
+        "getPlayerOneWins", "getPlayerTwoWins"};
+    private static final String[] COMMANDS = {"placeCard", "cardUsesAttack",
+        "cardUsesAbility", "useAttackHero", "useHeroAbility", "endPlayerTurn"};
+
+    private static final int DEFAULT_CASES = 10000;
+    private static final int MAX_FAILURES = 10;
+    private static final int MAX_DECKS = 3;
+    private static final int MIN_DECK_SIZE = 4;
+    private static final int MAX_DECK_SIZE = 12;
+    private static final int MAX_GAMES = 4;
+    private static final int MAX_ACTIONS = 160;
+    private static final int MAX_MANA = 8;
+    private static final int MAX_ATTACK = 6;
+    private static final int MAX_HEALTH = 8;
+    private static final int MAX_COLUMN = 6;
+    private static final int ROWS = 4;
+    private static final int LEGAL_PERCENT = 55;
+    private static final int QUERY_PERCENT = 25;
+    private static final int PERCENT = 100;
+    private static final long SEED_MIX = 0x9E3779B97F4A7C15L;
+    private static final long PROGRESS_SECONDS = 5;
+    private static final long FAILURE_SECONDS = 30;
+    private static final int FAILURE_GAMES = 21;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private static final ObjectMapper REFLECTIVE = new ObjectMapper();
+    private static final ObjectMapper STREAMING = new ObjectMapper()
+            .registerModule(new InputModule());
+    private static final ObjectMapper OUTPUT = new ObjectMapper();
+
+    private final LinkedHashMap<String, Engine> engines = new LinkedHashMap<>();
+    private final GameRunner runner = new GameRunner(Runtime.getRuntime().availableProcessors());
+    private final Path failureDir;
+    private final AtomicLong nextCase = new AtomicLong();
+    private final AtomicLong done = new AtomicLong();
+    private final AtomicInteger failures = new AtomicInteger();
+
+    /**
+     * Plays an input, given as the contents of an input file, and returns its output.
+     */
+    private interface Engine {
+        ArrayNode play(byte[] input) throws Exception;
+    }
+
+    private Fuzzer(final Path failureDir, final String[] names) {
+        this.failureDir = failureDir;
+        for (String name : names) {
+            engines.put(name, switch (name) {
+                case "streaming" -> input -> play(STREAMING.readValue(input, Input.class));
+                case "selective" -> input -> withFile(input, file ->
+                        play(SelectiveInput.read(file, STREAMING)));
+                case "runner" -> input -> runner.run(STREAMING.readValue(input, Input.class))
+                        .join();
+                case "snapshot" -> input ->
+                        playWithSnapshots(STREAMING.readValue(input, Input.class));
+                case "pipeline" -> input -> withFile(input, file -> {
+                    File output = new File(file.getPath() + ".out");
+                    try {
+                        GamePipeline.run(file, output);
+                        return (ArrayNode) OUTPUT.readTree(output);
+                    } finally {
+                        Files.deleteIfExists(output.toPath());
+                    }
+                });
+                default -> throw new IllegalArgumentException("Unknown engine " + name + ".");
+            });
+        }
+    }
+
+    /**
+     * @param args {@code [cases] [seed] [failureDir] [engines...]}, by default
+     *             {@value #DEFAULT_CASES} cases, seed 0, the {@code fuzz} directory and all
+     *             the engines but {@code pipeline}
+     * @throws IOException in case of exceptions to writing the failing cases
+     */
+    public static void main(final String[] args) throws IOException {
+        long cases = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_CASES;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        Path failureDir = Paths.get(args.length > 2 ? args[2] : "fuzz");
+        String[] names = args.length > 3 ? Arrays.copyOfRange(args, 3, args.length)
+                : DEFAULT_ENGINES;
+
+        Fuzzer fuzzer = new Fuzzer(failureDir, names);
+        boolean passed = fuzzer.checkFailure(seed);
+        passed = fuzzer.run(cases, seed) && passed;
+        fuzzer.runner.close();
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Checks that every engine reports the exception of a failing game, followed by games
+     * that are never played, instead of hanging or playing on.
+     */
+    private boolean checkFailure(final long seed) throws IOException {
+        Files.createDirectories(failureDir);
+        ObjectNode input = generate(new Random(seed));
+        ArrayNode games = (ArrayNode) input.get("games");
+        JsonNode game = games.get(0);
+        games.removeAll();
+        for (int i = 0; i < FAILURE_GAMES; i++) {
+            games.add(game.deepCopy());
+        }
+        ((ArrayNode) games.get(0).get("actions")).insertObject(0)
+                .put("command", "useAttackHero");
+
+        boolean passed = true;
+        for (Map.Entry<String, Engine> engine : engines.entrySet()) {
+            String difference;
+            try {
+                difference = CompletableFuture.supplyAsync(() ->
+                        compare(input, engine.getValue()))
+                        .get(FAILURE_SECONDS, TimeUnit.SECONDS);
+            } catch (TimeoutException e) {
+                difference = "no outcome after " + FAILURE_SECONDS + " s";
+            } catch (ExecutionException e) {
+                difference = e.getCause().toString();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            if (difference != null) {
+                Path file = failureDir.resolve("fuzz_" + seed + "_failure_" + engine.getKey()
+                        + ".json");
+                OUTPUT.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), input);
+                failures.incrementAndGet();
+                System.out.println("failing game, engine " + engine.getKey() + ": "
+                        + difference + " (written to " + file + ")");
+                passed = false;
+            }
+        }
+        return passed;
+    }
+
+    private boolean run(final long cases, final long seed) throws IOException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        for (int i = 0; i < threads; i++) {
+            executor.execute(() -> {
+                for (long idx = nextCase.getAndIncrement();
+                     idx < cases && failures.get() < MAX_FAILURES;
+                     idx = nextCase.getAndIncrement()) {
+                    try {
+                        fuzz(seed, idx);
+                    } catch (Throwable e) {
+                        // a case the fuzzer itself cannot handle is a failure all the same
+                        failures.incrementAndGet();
+                        System.out.println("case " + idx + ": fuzzer failed with " + e);
+                        e.printStackTrace();
+                    }
+                    done.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(PROGRESS_SECONDS, TimeUnit.SECONDS)) {
+                report(start);
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        report(start);
+        return failures.get() == 0;
+    }
+
+    private void report(final long start) {
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        System.out.printf("%d cases in %.1f s, %.0f cases/s, %d failures%n", done.get(),
+                seconds, done.get() / seconds, failures.get());
+    }
+
+    private void fuzz(final long seed, final long idx) {
+        ObjectNode input;
+        try {
+            input = generate(new Random(seed ^ (idx * SEED_MIX)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not generate case " + idx, e);
+        }
+        for (Map.Entry<String, Engine> engine : engines.entrySet()) {
+            String difference = compare(input, engine.getValue());
+            if (difference == null) {
+                continue;
+            }
+
+            ObjectNode minimal = shrink(input, engine.getValue());
+            Path file = failureDir.resolve("fuzz_" + seed + "_" + idx + "_" + engine.getKey()
+                    + ".json");
+            try {
+                OUTPUT.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), minimal);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            failures.incrementAndGet();
+            System.out.println("case " + idx + ", engine " + engine.getKey() + ": "
+                    + compare(minimal, engine.getValue()) + " (shrunk to " + file + ")");
+        }
+    }
+
+    /**
+     * Plays an input with the reference engine and with a candidate engine and compares
+     * their outputs. An exception is part of the output, compared by its class.
+     *
+     * @return the first difference, or null if the outputs are the same
+     */
+    private String compare(final ObjectNode input, final Engine candidate) {
+        byte[] bytes;
+        try {
+            bytes = OUTPUT.writeValueAsBytes(input);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        JsonNode expected = outcome(() -> play(REFLECTIVE.readValue(bytes, Input.class)));
+        JsonNode actual = outcome(() -> candidate.play(bytes));
+        return difference(expected, actual, "$");
+    }
+
+    private static JsonNode outcome(final Execution execution) {
+        try {
+            return execution.play();
+        } catch (Exception e) {
+            Throwable cause = e;
+            while (cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            return OUTPUT.createObjectNode().put("exception", cause.getClass().getName());
+        }
+    }
+
+    /**
+     * Finds the first node where two trees differ.
+     *
+     * @return the path of the difference and both values, or null if the trees are equal
+     */
+    static String difference(final JsonNode expected, final JsonNode actual,
+                             final String path) {
+        if (expected.equals(actual)) {
+            return null;
+        }
+        if (expected.isArray() && actual.isArray()) {
+            for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+                String difference = difference(expected.get(i), actual.get(i),
+                        path + "[" + i + "]");
+                if (difference != null) {
+                    return difference;
+                }
+            }
+            return path + ": expected " + expected.size() + " elements but got "
+                    + actual.size();
+        }
+        if (expected.isObject() && actual.isObject()) {
+            Iterator<String> fields = expected.fieldNames();
+            while (fields.hasNext()) {
+                String field = fields.next();
+                if (!actual.has(field)) {
+                    return path + "." + field + ": missing";
+                }
+                String difference = difference(expected.get(field), actual.get(field),
+                        path + "." + field);
+                if (difference != null) {
+                    return difference;
+                }
+            }
+            fields = actual.fieldNames();
+            while (fields.hasNext()) {
+                String field = fields.next();
+                if (!expected.has(field)) {
+                    return path + "." + field + ": unexpected";
+                }
+            }
+        }
+        return path + ": expected " + expected + " but got " + actual;
+    }
+
+    private static ArrayNode play(final Input input) {
+        ArrayNode output = OUTPUT.createArrayNode();
+        Stats stats = new Stats();
+        for (int i = 0; i < input.getGames().size(); i++) {
+            Game game = new Game(stats);
+            game.prepareGame(input, i);
+            game.parseActions(input, i);
+            game.playGame(OUTPUT, output);
+        }
+        return output;
+    }
+
+    private static ArrayNode playWithSnapshots(final Input input) throws IOException {
+        ArrayNode output = OUTPUT.createArrayNode();
+        Stats stats = new Stats();
+        for (int i = 0; i < input.getGames().size(); i++) {
+            Game game = new Game(stats);
+            game.prepareGame(input, i);
+            game.startGame();
+            for (ActionsInput action : input.getGames().get(i).getActions()) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                GameSnapshot.write(game, new DataOutputStream(bytes), false);
+                game = GameSnapshot.read(ByteBuffer.wrap(bytes.toByteArray()), stats);
+                ObjectNode result = game.executeAction(OUTPUT, game.parseAction(action));
+                if (result != null) {
+                    output.add(result);
+                }
+            }
+        }
+        return output;
+    }
+
+    /**
+     * Execution of an input by an engine.
+     */
+    private interface Execution {
+        ArrayNode play() throws Exception;
+    }
+
+    /**
+     * Body of an engine reading its input from a file.
+     */
+    private interface FileEngine {
+        ArrayNode play(File input) throws Exception;
+    }
+
+    private static ArrayNode withFile(final byte[] input, final FileEngine engine)
+            throws Exception {
+        Path file = Files.createTempFile("fuzz", ".json");
+        try {
+            Files.write(file, input);
+            return engine.play(file.toFile());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Generates a random input. The games are played while they are generated, so that
+     * most of their actions can be legal ones.
+     */
+    private static ObjectNode generate(final Random random) throws IOException {
+        ObjectNode input = OUTPUT.createObjectNode();
+        input.set("playerOneDecks", decks(random));
+        input.set("playerTwoDecks", decks(random));
+        DecksInput playerOneDecks = REFLECTIVE.treeToValue(input.get("playerOneDecks"),
+                DecksInput.class);
+        DecksInput playerTwoDecks = REFLECTIVE.treeToValue(input.get("playerTwoDecks"),
+                DecksInput.class);
+
+        ArrayNode games = input.putArray("games");
+        Stats stats = new Stats();
+        LegalActions legal = new LegalActions();
+        int numGames = 1 + random.nextInt(MAX_GAMES);
+        for (int i = 0; i < numGames; i++) {
+            ObjectNode gameNode = games.addObject();
+            ObjectNode startGame = gameNode.putObject("startGame");
+            startGame.put("playerOneDeckIdx", random.nextInt(playerOneDecks.getNrDecks()));
+            startGame.put("playerTwoDeckIdx", random.nextInt(playerTwoDecks.getNrDecks()));
+            startGame.put("shuffleSeed", random.nextInt(Integer.MAX_VALUE));
+            startGame.set("playerOneHero", hero(random));
+            startGame.set("playerTwoHero", hero(random));
+            startGame.put("startingPlayer", 1 + random.nextInt(2));
+            ArrayNode actions = gameNode.putArray("actions");
+
+            Game game = new Game(stats);
+            game.prepareGame(playerOneDecks, playerTwoDecks,
+                    REFLECTIVE.treeToValue(gameNode, GameInput.class), i);
+            game.startGame();
+            int numActions = random.nextInt(MAX_ACTIONS + 1);
+            for (int j = 0; j < numActions; j++) {
+                ActionsInput action = action(random, game, legal);
+                actions.add(actionNode(action));
+                try {
+                    game.executeAction(OUTPUT, game.parseAction(action));
+                } catch (RuntimeException e) {
+                    // the engines are compared on this exception, nothing can follow it
+                    break;
+                }
+            }
+        }
+        return input;
+    }
+
+    private static ObjectNode decks(final Random random) {
+        ObjectNode decks = OUTPUT.createObjectNode();
+        int nrDecks = 1 + random.nextInt(MAX_DECKS);
+        int nrCards = MIN_DECK_SIZE + random.nextInt(MAX_DECK_SIZE - MIN_DECK_SIZE + 1);
+        decks.put("nrCardsInDeck", nrCards);
+        decks.put("nrDecks", nrDecks);
+        ArrayNode list = decks.putArray("decks");
+        for (int i = 0; i < nrDecks; i++) {
+            ArrayNode deck = list.addArray();
+            for (int j = 0; j < nrCards; j++) {
+                ObjectNode card = deck.addObject();
+                card.put("mana", 1 + random.nextInt(MAX_MANA));
+                card.put("attackDamage", random.nextInt(MAX_ATTACK + 1));
+                card.put("health", 1 + random.nextInt(MAX_HEALTH));
+                card.put("description", "Fuzzed card");
+                card.set("colors", colors(random));
+                card.put("name", MINIONS[random.nextInt(MINIONS.length)]);
+            }
+        }
+        return decks;
+    }
+
+    private static ObjectNode hero(final Random random) {
+        ObjectNode hero = OUTPUT.createObjectNode();
+        hero.put("mana", 1 + random.nextInt(MAX_MANA));
+        hero.put("description", "Fuzzed hero");
+        hero.set("colors", colors(random));
+        hero.put("name", HEROES[random.nextInt(HEROES.length)]);
+        return hero;
+    }
+
+    private static ArrayNode colors(final Random random) {
+        ArrayNode colors = OUTPUT.createArrayNode();
+        int numColors = 1 + random.nextInt(2 + 1);
+        for (int i = 0; i < numColors; i++) {
+            colors.add(COLORS[random.nextInt(COLORS.length)]);
+        }
+        return colors;
+    }
+
+    /**
+     * Picks the next action of a game: a legal move, a debug query, or a command that may
+     * break the rules of the game. Its operands always point at cards that exist, as in the
+     * input files, since the engines do not check them.
+     */
+    private static ActionsInput action(final Random random, final Game game,
+                                       final LegalActions legal) {
+        int roll = random.nextInt(PERCENT);
+        if (roll < LEGAL_PERCENT && legal.generate(game) > 0) {
+            return LegalActions.toActionsInput(legal.get(random.nextInt(legal.size())));
+        }
+
+        ActionsInput action = new ActionsInput();
+        action.setPlayerIdx(1 + random.nextInt(2));
+        action.setX(random.nextInt(ROWS));
+        action.setY(random.nextInt(MAX_COLUMN));
+        action.setAffectedRow(random.nextInt(ROWS));
+        int handSize = game.getPlayer(game.getStats().getCurrentPlayer()).getHand().getSize();
+        action.setHandIdx(handSize == 0 ? 0 : random.nextInt(handSize));
+        action.setCardAttacker(occupied(random, game));
+        action.setCardAttacked(occupied(random, game));
+
+        String command = "endPlayerTurn";
+        if (roll < LEGAL_PERCENT + QUERY_PERCENT) {
+            command = QUERIES[random.nextInt(QUERIES.length)];
+        } else {
+            String picked = COMMANDS[random.nextInt(COMMANDS.length)];
+            boolean possible = switch (picked) {
+                case "placeCard" -> handSize > 0;
+                case "cardUsesAttack", "cardUsesAbility", "useAttackHero" ->
+                        action.getCardAttacker() != null;
+                default -> true;
+            };
+            if (possible) {
+                command = picked;
+            }
+        }
+        action.setCommand(command);
+        return action;
+    }
+
+    private static Coordinates occupied(final Random random, final Game game) {
+        int cards = game.getBoard().getCardsCount();
+        if (cards == 0) {
+            return null;
+        }
+        int idx = random.nextInt(cards);
+        for (int x = 0; x < ROWS; x++) {
+            int size = game.getBoard().getBoard().get(x).getSize();
+            if (idx < size) {
+                Coordinates coordinates = new Coordinates();
+                coordinates.setX(x);
+                coordinates.setY(idx);
+                return coordinates;
+            }
+            idx -= size;
+        }
+        return null;
+    }
+
+    /**
+     * Writes an action as the input files do, with only the operands of its command.
+     */
+    private static ObjectNode actionNode(final ActionsInput action) {
+        ObjectNode node = OUTPUT.createObjectNode();
+        node.put("command", action.getCommand());
+        switch (action.getCommand()) {
+            case "placeCard" -> node.put("handIdx", action.getHandIdx());
+            case "cardUsesAttack", "cardUsesAbility" -> {
+                node.set("cardAttacker", OUTPUT.valueToTree(action.getCardAttacker()));
+                node.set("cardAttacked", OUTPUT.valueToTree(action.getCardAttacked()));
+            }
+            case "useAttackHero" ->
+                    node.set("cardAttacker", OUTPUT.valueToTree(action.getCardAttacker()));
+            case "useHeroAbility" -> node.put("affectedRow", action.getAffectedRow());
+            case "getCardsInHand", "getPlayerDeck", "getPlayerHero", "getPlayerMana" ->
+                    node.put("playerIdx", action.getPlayerIdx());
+            case "getCardAtPosition" -> {
+                node.put("x", action.getX());
+                node.put("y", action.getY());
+            }
+            default -> {
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Shrinks a failing input until no single removal keeps it failing: whole games, runs
+     * of actions (halving their length down to one action), unplayed decks and cards. A card
+     * is removed at the same position from every deck of its player, so that the decks keep
+     * the size given by {@code nrCardsInDeck} and the shrunk input stays valid.
+     */
+    private ObjectNode shrink(final ObjectNode failing, final Engine engine) {
+        ObjectNode input = failing;
+        boolean shrunk = true;
+        while (shrunk) {
+            shrunk = false;
+            ArrayList<ObjectNode> candidates = new ArrayList<>();
+            ArrayNode games = (ArrayNode) input.get("games");
+            for (int i = 0; games.size() > 1 && i < games.size(); i++) {
+                ObjectNode candidate = input.deepCopy();
+                ((ArrayNode) candidate.get("games")).remove(i);
+                candidates.add(candidate);
+            }
+            for (int i = 0; i < games.size(); i++) {
+                int numActions = games.get(i).get("actions").size();
+                for (int run = numActions; run > 0; run /= 2) {
+                    for (int from = 0; from < numActions; from += run) {
+                        ObjectNode candidate = input.deepCopy();
+                        ArrayNode actions = (ArrayNode) candidate.get("games").get(i)
+                                .get("actions");
+                        for (int k = Math.min(from + run, numActions) - 1; k >= from; k--) {
+                            actions.remove(k);
+                        }
+                        candidates.add(candidate);
+                    }
+                }
+            }
+            for (String player : new String[] {"playerOneDecks", "playerTwoDecks"}) {
+                for (int d = 0; d < input.get(player).get("decks").size(); d++) {
+                    ObjectNode candidate = removeDeck(input, player, d);
+                    if (candidate != null) {
+                        candidates.add(candidate);
+                    }
+                }
+                int nrCards = input.get(player).get("nrCardsInDeck").asInt();
+                for (int c = 0; nrCards > 1 && c < nrCards; c++) {
+                    candidates.add(removeCard(input, player, c));
+                }
+            }
+
+            for (ObjectNode candidate : candidates) {
+                if (compare(candidate, engine) != null) {
+                    input = candidate;
+                    shrunk = true;
+                    break;
+                }
+            }
+        }
+        return input;
+    }
+
+    /**
+     * Removes the card at the given position from every deck of a player.
+     *
+     * @return the input without the cards
+     */
+    private static ObjectNode removeCard(final ObjectNode input, final String player,
+                                         final int card) {
+        ObjectNode candidate = input.deepCopy();
+        ObjectNode decks = (ObjectNode) candidate.get(player);
+        for (JsonNode deck : decks.get("decks")) {
+            ((ArrayNode) deck).remove(card);
+        }
+        decks.put("nrCardsInDeck", decks.get("nrCardsInDeck").asInt() - 1);
+        return candidate;
+    }
+
+    /**
+     * Removes a deck no game is played with, renumbering the decks after it.
+     *
+     * @return the input without the deck, or null if the deck is played or is the last one
+     */
+    private static ObjectNode removeDeck(final ObjectNode input, final String player,
+                                         final int deck) {
+        String field = player.equals("playerOneDecks") ? "playerOneDeckIdx"
+                : "playerTwoDeckIdx";
+        if (input.get(player).get("decks").size() == 1) {
+            return null;
+        }
+        for (JsonNode game : input.get("games")) {
+            if (game.get("startGame").get(field).asInt() == deck) {
+                return null;
+            }
+        }
+
+        ObjectNode candidate = input.deepCopy();
+        ObjectNode decks = (ObjectNode) candidate.get(player);
+        ((ArrayNode) decks.get("decks")).remove(deck);
+        decks.put("nrDecks", decks.get("decks").size());
+        for (JsonNode game : candidate.get("games")) {
+            ObjectNode startGame = (ObjectNode) game.get("startGame");
+            if (startGame.get(field).asInt() > deck) {
+                startGame.put(field, startGame.get(field).asInt() - 1);
+            }
+        }
+        return candidate;
+    }
+}
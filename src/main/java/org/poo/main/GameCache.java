@@ -0,0 +1,279 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.fileio.ActionsInput;
+import org.poo.fileio.CardInput;
+import org.poo.fileio.Coordinates;
+import org.poo.fileio.DecksInput;
+import org.poo.fileio.GameInput;
+import org.poo.fileio.StartGameInput;
+import org.poo.game.Game;
+import org.poo.game.Stats;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the result of whole games, so that a game appearing again, in the same file or
+ * in another one, is replayed instead of executed. A game is identified by the SHA-256 of a
+ * canonical encoding of everything its output depends on: the two decks it is played with,
+ * the heroes, the shuffle seed, the starting player and the actions. When the game queries
+ * the cross-game counters, their values at the start of the game are part of the key too.
+ * The result of a game is its output together with what it added to the counters.
+ *
+ * <p>Enabled by setting the {@code gwentstone.cache} system property to {@code true}. The
+ * {@code gwentstone.cacheSize} system property gives the number of results kept in memory
+ * ({@value #DEFAULT_CAPACITY} by default), the least recently used ones being dropped
+ * first. Results are also stored on disk, one JSON file per game, when
+ * {@code gwentstone.cacheDir} names a directory. Replayed games are not seen by the
+ * instrumentation of {@link Game}. The number of hits and misses is reported on the
+ * standard error when the JVM exits.
+ */
+public final class GameCache {
+    public static final String PROPERTY = "gwentstone.cache";
+    public static final String SIZE_PROPERTY = "gwentstone.cacheSize";
+    public static final String DIR_PROPERTY = "gwentstone.cacheDir";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final int DEFAULT_CAPACITY = 1024;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+    private static final String KEY_VERSION = "gwentstone-game-1";
+    private static final String[] COUNTER_QUERIES = {"getTotalGamesPlayed",
+        "getPlayerOneWins", "getPlayerTwoWins"};
+
+    private static final int CAPACITY = Integer.getInteger(SIZE_PROPERTY, DEFAULT_CAPACITY);
+    private static final Path DIR = System.getProperty(DIR_PROPERTY) == null ? null
+            : Paths.get(System.getProperty(DIR_PROPERTY));
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final LinkedHashMap<String, Result> RESULTS = new LinkedHashMap<>(
+            INITIAL_CAPACITY, LOAD_FACTOR, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Result> eldest) {
+            return size() > CAPACITY;
+        }
+    };
+    private static long hits;
+    private static long diskHits;
+    private static long misses;
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                synchronized (RESULTS) {
+                    System.err.printf("game cache: %d hits (%d from disk), %d misses%n",
+                            hits, diskHits, misses);
+                }
+            }));
+        }
+    }
+
+    /**
+     * The output of a game and what it added to the cross-game counters.
+     */
+    private static final class Result {
+        private final ArrayNode output;
+        private final int gamesPlayed;
+        private final int player1Wins;
+        private final int player2Wins;
+
+        Result(final ArrayNode output, final int gamesPlayed, final int player1Wins,
+               final int player2Wins) {
+            this.output = output;
+            this.gamesPlayed = gamesPlayed;
+            this.player1Wins = player1Wins;
+            this.player2Wins = player2Wins;
+        }
+    }
+
+    private GameCache() {
+    }
+
+    /**
+     * Plays a game as {@link Game#playGame} does, or replays its remembered result: its
+     * output is appended to the given array and the counters are updated.
+     *
+     * @param stats          the {@link Stats} shared by the games of the input
+     * @param playerOneDecks the {@link DecksInput} of the first player
+     * @param playerTwoDecks the {@link DecksInput} of the second player
+     * @param gameInput      the {@link GameInput} describing the game
+     * @param numGame        the index of the game in the input
+     * @param mapper         the {@link ObjectMapper} for JSON operations
+     * @param output         the {@link ArrayNode} receiving the output of the game
+     * @throws IOException in case of exceptions to reading / writing the disk store
+     */
+    public static void play(final Stats stats, final DecksInput playerOneDecks,
+                            final DecksInput playerTwoDecks, final GameInput gameInput,
+                            final int numGame, final ObjectMapper mapper,
+                            final ArrayNode output) throws IOException {
+        String key = keyOf(stats, playerOneDecks, playerTwoDecks, gameInput);
+        Result result = lookup(key);
+        if (result == null) {
+            int gamesPlayed = stats.getTotalGamesPlayed();
+            int player1Wins = stats.getPlayer1Wins();
+            int player2Wins = stats.getPlayer2Wins();
+            Game game = new Game(stats);
+            game.prepareGame(playerOneDecks, playerTwoDecks, gameInput, numGame);
+            game.parseActions(gameInput);
+            ArrayNode gameOutput = mapper.createArrayNode();
+            game.playGame(mapper, gameOutput);
+            result = new Result(gameOutput, stats.getTotalGamesPlayed() - gamesPlayed,
+                    stats.getPlayer1Wins() - player1Wins, stats.getPlayer2Wins() - player2Wins);
+            store(key, result);
+        } else {
+            stats.setTotalGamesPlayed(stats.getTotalGamesPlayed() + result.gamesPlayed);
+            stats.setPlayer1Wins(stats.getPlayer1Wins() + result.player1Wins);
+            stats.setPlayer2Wins(stats.getPlayer2Wins() + result.player2Wins);
+        }
+        output.addAll(result.output);
+    }
+
+    private static Result lookup(final String key) throws IOException {
+        synchronized (RESULTS) {
+            Result result = RESULTS.get(key);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+        }
+        if (DIR != null && Files.exists(DIR.resolve(key + ".json"))) {
+            JsonNode node = MAPPER.readTree(DIR.resolve(key + ".json").toFile());
+            Result result = new Result((ArrayNode) node.get("output"),
+                    node.get("gamesPlayed").asInt(), node.get("player1Wins").asInt(),
+                    node.get("player2Wins").asInt());
+            synchronized (RESULTS) {
+                RESULTS.put(key, result);
+                hits++;
+                diskHits++;
+            }
+            return result;
+        }
+        synchronized (RESULTS) {
+            misses++;
+        }
+        return null;
+    }
+
+    private static void store(final String key, final Result result) throws IOException {
+        synchronized (RESULTS) {
+            RESULTS.put(key, result);
+        }
+        if (DIR == null) {
+            return;
+        }
+        ObjectNode node = MAPPER.createObjectNode();
+        node.put("gamesPlayed", result.gamesPlayed);
+        node.put("player1Wins", result.player1Wins);
+        node.put("player2Wins", result.player2Wins);
+        node.set("output", result.output);
+        Files.createDirectories(DIR);
+        Path temp = Files.createTempFile(DIR, key, ".tmp");
+        MAPPER.writeValue(temp.toFile(), node);
+        Files.move(temp, DIR.resolve(key + ".json"), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Computes the key of a game: the SHA-256 of its canonical encoding, in hexadecimal.
+     */
+    static String keyOf(final Stats stats, final DecksInput playerOneDecks,
+                        final DecksInput playerTwoDecks, final GameInput gameInput) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        try (DataOutputStream out = new DataOutputStream(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+            StartGameInput startGame = gameInput.getStartGame();
+            out.writeUTF(KEY_VERSION);
+            writeDeck(out, playerOneDecks.getDecks().get(startGame.getPlayerOneDeckIdx()));
+            writeDeck(out, playerTwoDecks.getDecks().get(startGame.getPlayerTwoDeckIdx()));
+            writeCard(out, startGame.getPlayerOneHero());
+            writeCard(out, startGame.getPlayerTwoHero());
+            out.writeInt(startGame.getShuffleSeed());
+            out.writeInt(startGame.getStartingPlayer());
+
+            boolean readsCounters = false;
+            out.writeInt(gameInput.getActions().size());
+            for (ActionsInput action : gameInput.getActions()) {
+                writeString(out, action.getCommand());
+                out.writeInt(action.getHandIdx());
+                writeCoordinates(out, action.getCardAttacker());
+                writeCoordinates(out, action.getCardAttacked());
+                out.writeInt(action.getAffectedRow());
+                out.writeInt(action.getPlayerIdx());
+                out.writeInt(action.getX());
+                out.writeInt(action.getY());
+                for (String query : COUNTER_QUERIES) {
+                    readsCounters |= query.equals(action.getCommand());
+                }
+            }
+            out.writeBoolean(readsCounters);
+            if (readsCounters) {
+                out.writeInt(stats.getTotalGamesPlayed());
+                out.writeInt(stats.getPlayer1Wins());
+                out.writeInt(stats.getPlayer2Wins());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void writeDeck(final DataOutputStream out, final ArrayList<CardInput> deck)
+            throws IOException {
+        out.writeInt(deck.size());
+        for (CardInput card : deck) {
+            writeCard(out, card);
+        }
+    }
+
+    private static void writeCard(final DataOutputStream out, final CardInput card)
+            throws IOException {
+        writeString(out, card.getName());
+        writeString(out, card.getDescription());
+        out.writeInt(card.getMana());
+        out.writeInt(card.getAttackDamage());
+        out.writeInt(card.getHealth());
+        out.writeInt(card.getColors() == null ? -1 : card.getColors().size());
+        if (card.getColors() != null) {
+            for (String color : card.getColors()) {
+                writeString(out, color);
+            }
+        }
+    }
+
+    private static void writeCoordinates(final DataOutputStream out,
+                                         final Coordinates coordinates) throws IOException {
+        out.writeBoolean(coordinates != null);
+        if (coordinates != null) {
+            out.writeInt(coordinates.getX());
+            out.writeInt(coordinates.getY());
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String string)
+            throws IOException {
+        out.writeBoolean(string != null);
+        if (string != null) {
+            out.writeUTF(string);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import org.poo.fileio.DecksInput;
+import org.poo.fileio.GameInput;
+import org.poo.fileio.Input;
+import org.poo.fileio.InputModule;
+import org.poo.game.Game;
+import org.poo.game.Stats;
+import org.poo.metrics.FileEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Processes an input file as a three-stage pipeline: one thread parses the games one by
+ * one, one thread plays them and the calling thread writes their output. The stages are
+ * connected by bounded queues, so game i+1 is parsed while game i is played and the output
+ * of game i-1 is written. Games are still played, and their output written, in input order.
+ * When a stage fails, the others are interrupted and their queues are cleared and ended,
+ * so that every stage stops and the failure is reported by {@link #run}.
+ * Enabled by setting the {@code gwentstone.pipeline} system property to {@code true}.
+ */
+public final class GamePipeline {
+    public static final String PROPERTY = "gwentstone.pipeline";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final int QUEUE_CAPACITY = 4;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final long OFFER_MILLIS = 100;
+    private static final ParsedGame END_OF_GAMES = new ParsedGame(null, null, null, -1);
+    private static final ArrayNode END_OF_RESULTS = JsonNodeFactory.instance.arrayNode();
+    private static final ObjectMapper INPUT_MAPPER = new ObjectMapper()
+            .registerModule(new InputModule());
+    private static final ObjectMapper OUTPUT_MAPPER = new ObjectMapper();
+    private static final ObjectWriter OUTPUT_WRITER =
+            OUTPUT_MAPPER.writerWithDefaultPrettyPrinter();
+
+    private final BlockingQueue<ParsedGame> games = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<ArrayNode> results = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Stage parseStage = new Stage("parse");
+    private final Stage executeStage = new Stage("execute");
+    private final Stage writeStage = new Stage("write");
+    private volatile boolean failed;
+    private volatile Thread parser;
+    private volatile Thread executor;
+
+    /**
+     * A game read from the input, together with the decks it is played with.
+     */
+    private static final class ParsedGame {
+        private final DecksInput playerOneDecks;
+        private final DecksInput playerTwoDecks;
+        private final GameInput game;
+        private final int index;
+
+        ParsedGame(final DecksInput playerOneDecks, final DecksInput playerTwoDecks,
+                   final GameInput game, final int index) {
+            this.playerOneDecks = playerOneDecks;
+            this.playerTwoDecks = playerTwoDecks;
+            this.game = game;
+            this.index = index;
+        }
+    }
+
+    /**
+     * Time spent by a stage working and waiting on its queues.
+     */
+    private static final class Stage {
+        private final String name;
+        private long busyNanos;
+        private long idleNanos;
+        private Throwable failure;
+
+        Stage(final String name) {
+            this.name = name;
+        }
+
+        <T> T take(final BlockingQueue<T> queue) throws InterruptedException {
+            long start = System.nanoTime();
+            T item = queue.take();
+            idleNanos += System.nanoTime() - start;
+            return item;
+        }
+
+        <T> void put(final BlockingQueue<T> queue, final T item) throws InterruptedException {
+            long start = System.nanoTime();
+            queue.put(item);
+            idleNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s busy %.2f ms idle %.2f ms", name,
+                    busyNanos / NANOS_PER_MILLI, idleNanos / NANOS_PER_MILLI);
+        }
+    }
+
+    private GamePipeline() {
+    }
+
+    /**
+     * Plays every game of the input file and writes their output, using a pipeline.
+     * The busy and idle time of every stage is reported on the standard error.
+     *
+     * @param inputFile  the input file
+     * @param outputFile the output file
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void run(final File inputFile, final File outputFile) throws IOException {
+        GamePipeline pipeline = new GamePipeline();
+        pipeline.parser = pipeline.startStage(pipeline.parseStage,
+                () -> pipeline.parse(inputFile));
+        pipeline.executor = pipeline.startStage(pipeline.executeStage, pipeline::execute);
+
+        boolean written = false;
+        try {
+            long start = System.nanoTime();
+            pipeline.write(outputFile);
+            pipeline.writeStage.busyNanos = System.nanoTime() - start
+                    - pipeline.writeStage.idleNanos;
+            written = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing " + inputFile, e);
+        } finally {
+            if (!written) {
+                pipeline.abort();
+            }
+        }
+        try {
+            pipeline.parser.join();
+            pipeline.executor.join();
+        } catch (InterruptedException e) {
+            pipeline.abort();
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while processing " + inputFile, e);
+        }
+
+        for (Stage stage : new Stage[] {pipeline.parseStage, pipeline.executeStage}) {
+            if (stage.failure instanceof IOException) {
+                throw (IOException) stage.failure;
+            } else if (stage.failure != null) {
+                throw new IOException("Stage " + stage.name + " failed", stage.failure);
+            }
+        }
+        System.err.println("pipeline " + inputFile.getName() + ": " + pipeline.parseStage
+                + " | " + pipeline.executeStage + " | " + pipeline.writeStage);
+    }
+
+    /**
+     * Body of a stage running on its own thread.
+     */
+    private interface StageBody {
+        void run() throws Exception;
+    }
+
+    private Thread startStage(final Stage stage, final StageBody body) {
+        Thread thread = new Thread(() -> {
+            long start = System.nanoTime();
+            try {
+                body.run();
+            } catch (Throwable e) {
+                fail(stage, e);
+            } finally {
+                stage.busyNanos = System.nanoTime() - start - stage.idleNanos;
+            }
+        }, "gwentstone-" + stage.name);
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * Records the failure of a stage and stops the others. Only the first failure is kept,
+     * as the interruption of the other stages makes them fail too.
+     */
+    private synchronized void fail(final Stage stage, final Throwable failure) {
+        if (!failed) {
+            stage.failure = failure;
+        }
+        abort();
+    }
+
+    /**
+     * Stops every stage after a failure: the stage threads are interrupted, and both queues
+     * are emptied and ended, so that a stage waiting on them is released.
+     */
+    private synchronized void abort() {
+        failed = true;
+        for (Thread thread : new Thread[] {parser, executor}) {
+            if (thread != null && thread != Thread.currentThread()) {
+                thread.interrupt();
+            }
+        }
+        games.clear();
+        games.offer(END_OF_GAMES);
+        results.clear();
+        results.offer(END_OF_RESULTS);
+    }
+
+    /**
+     * Ends a queue. Once the pipeline has failed, the queue was already ended by
+     * {@link #abort}, and its consumer may be gone, so the stage stops waiting.
+     */
+    private <T> void end(final BlockingQueue<T> queue, final T sentinel) {
+        try {
+            boolean ended = false;
+            while (!ended && !failed) {
+                ended = queue.offer(sentinel, OFFER_MILLIS, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void parse(final File inputFile) throws IOException, InterruptedException {
+        FileEvent event = new FileEvent();
+        event.begin();
+        try (JsonParser parser = INPUT_MAPPER.getFactory().createParser(inputFile)) {
+            DecksInput playerOneDecks = null;
+            DecksInput playerTwoDecks = null;
+            ArrayList<GameInput> pending = new ArrayList<>();
+            int index = 0;
+
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "playerOneDecks" ->
+                            playerOneDecks = INPUT_MAPPER.readValue(parser, DecksInput.class);
+                    case "playerTwoDecks" ->
+                            playerTwoDecks = INPUT_MAPPER.readValue(parser, DecksInput.class);
+                    case "games" -> {
+                        while (parser.nextToken() == JsonToken.START_OBJECT) {
+                            GameInput game = INPUT_MAPPER.readValue(parser, GameInput.class);
+                            if (playerOneDecks == null || playerTwoDecks == null) {
+                                pending.add(game);
+                            } else {
+                                parseStage.put(games, new ParsedGame(playerOneDecks,
+                                        playerTwoDecks, game, index));
+                            }
+                            index++;
+                        }
+                    }
+                    default -> throw UnrecognizedPropertyException.from(parser, Input.class,
+                            field, null);
+                }
+            }
+
+            for (int i = 0; i < pending.size(); i++) {
+                parseStage.put(games, new ParsedGame(playerOneDecks, playerTwoDecks,
+                        pending.get(i), i));
+            }
+        } finally {
+            end(games, END_OF_GAMES);
+        }
+        if (event.shouldCommit()) {
+            event.finish(inputFile.getPath(), "read", inputFile.length());
+        }
+    }
+
+    private void execute() throws IOException, InterruptedException {
+        try {
+            Stats stats = new Stats();
+            ParsedGame parsed = executeStage.take(games);
+            while (parsed != END_OF_GAMES) {
+                ArrayNode output = OUTPUT_MAPPER.createArrayNode();
+                if (GameCache.ENABLED) {
+                    GameCache.play(stats, parsed.playerOneDecks, parsed.playerTwoDecks,
+                            parsed.game, parsed.index, OUTPUT_MAPPER, output);
+                } else {
+                    Game game = new Game(stats);
+                    game.prepareGame(parsed.playerOneDecks, parsed.playerTwoDecks,
+                            parsed.game, parsed.index);
+                    game.parseActions(parsed.game);
+                    game.playGame(OUTPUT_MAPPER, output);
+                }
+                executeStage.put(results, output);
+                parsed = executeStage.take(games);
+            }
+        } finally {
+            end(results, END_OF_RESULTS);
+        }
+    }
+
+    private void write(final File outputFile) throws IOException, InterruptedException {
+        FileEvent event = new FileEvent();
+        event.begin();
+        try (JsonGenerator generator = OUTPUT_WRITER.createGenerator(outputFile,
+                JsonEncoding.UTF8)) {
+            generator.writeStartArray();
+            ArrayNode output = writeStage.take(results);
+            while (output != END_OF_RESULTS) {
+                for (JsonNode node : output) {
+                    generator.writeTree(node);
+                }
+                output = writeStage.take(results);
+            }
+            generator.writeEndArray();
+        }
+        if (event.shouldCommit()) {
+            event.finish(outputFile.getPath(), "write", outputFile.length());
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import org.poo.fileio.DecksInput;
+import org.poo.fileio.GameInput;
+import org.poo.fileio.Input;
+import org.poo.game.Game;
+import org.poo.game.Stats;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Runs games in-process, without going through input and output files. Every submitted
+ * input is played on its own virtual thread, and at most a fixed number of them execute at
+ * the same time; the others wait, without holding a platform thread, until a slot frees up.
+ * All the games belong to the runner: closing it waits for every submitted game to finish.
+ */
+public final class GameRunner implements AutoCloseable {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore slots;
+
+    /**
+     * Creates a game runner.
+     *
+     * @param maxConcurrentGames the maximum number of inputs executing at the same time
+     */
+    public GameRunner(final int maxConcurrentGames) {
+        slots = new Semaphore(maxConcurrentGames);
+    }
+
+    /**
+     * Plays all the games of an input, in order, sharing their statistics as
+     * {@link Main#action} does.
+     *
+     * @param input the {@link Input} holding the decks and the games
+     * @return a future completed with the output of all the games
+     */
+    public CompletableFuture<ArrayNode> run(final Input input) {
+        return submit(() -> {
+            ArrayNode output = mapper.createArrayNode();
+            Stats stats = new Stats();
+            for (int i = 0; i < input.getGames().size(); i++) {
+                Game game = new Game(stats);
+                game.prepareGame(input, i);
+                game.parseActions(input, i);
+                game.playGame(mapper, output);
+            }
+            return output;
+        });
+    }
+
+    /**
+     * Plays a single game, with statistics of its own.
+     *
+     * @param playerOneDecks the {@link DecksInput} of the first player
+     * @param playerTwoDecks the {@link DecksInput} of the second player
+     * @param gameInput      the {@link GameInput} describing the game
+     * @return a future completed with the output of the game
+     */
+    public CompletableFuture<ArrayNode> run(final DecksInput playerOneDecks,
+                                            final DecksInput playerTwoDecks,
+                                            final GameInput gameInput) {
+        return submit(() -> {
+            ArrayNode output = mapper.createArrayNode();
+            Game game = new Game(new Stats());
+            game.prepareGame(playerOneDecks, playerTwoDecks, gameInput, 0);
+            game.parseActions(gameInput);
+            game.playGame(mapper, output);
+            return output;
+        });
+    }
+
+    /**
+     * Waits for every submitted game to finish and releases the runner.
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    /**
+     * Body of a task producing the output of some games.
+     */
+    private interface GamesTask {
+        ArrayNode play();
+    }
+
+    private CompletableFuture<ArrayNode> submit(final GamesTask task) {
+        CompletableFuture<ArrayNode> future = new CompletableFuture<>();
+        executor.execute(() -> {
+            try {
+                slots.acquire();
+            } catch (InterruptedException e) {
+                future.completeExceptionally(e);
+                return;
+            }
+            try {
+                future.complete(task.play());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            } finally {
+                slots.release();
+            }
+        });
+        return future;
+    }
+}
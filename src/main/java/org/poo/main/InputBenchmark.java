@@ -0,0 +1,80 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.poo.checker.CheckerConstants;
+import org.poo.fileio.Input;
+import org.poo.fileio.InputModule;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Compares the reflective deserialization of the input files with the streaming readers of
+ * {@link InputModule}. The files are loaded in memory first, so only parsing is measured,
+ * and both paths must produce the same inputs.
+ */
+public final class InputBenchmark {
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 1000;
+    private static final double NANOS_PER_MICRO = 1e3;
+
+    /**
+     * for coding style
+     */
+    private InputBenchmark() {
+    }
+
+    /**
+     * @param args unused
+     * @throws IOException in case of exceptions to reading
+     */
+    public static void main(final String[] args) throws IOException {
+        File[] files = Objects.requireNonNull(new File(CheckerConstants.TESTS_PATH).listFiles());
+        Arrays.sort(files);
+        ArrayList<byte[]> corpus = new ArrayList<>();
+        for (File file : files) {
+            corpus.add(Files.readAllBytes(file.toPath()));
+        }
+
+        ObjectMapper reflective = new ObjectMapper();
+        ObjectMapper streaming = new ObjectMapper().registerModule(new InputModule());
+        ObjectMapper writer = new ObjectMapper();
+        for (byte[] bytes : corpus) {
+            String expected = writer.writeValueAsString(reflective.readValue(bytes, Input.class));
+            String actual = writer.writeValueAsString(streaming.readValue(bytes, Input.class));
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException("The streaming readers disagree with Jackson.");
+            }
+        }
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            readAll(reflective, corpus);
+            readAll(streaming, corpus);
+        }
+        long reflectiveNanos = 0;
+        long streamingNanos = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            reflectiveNanos += readAll(reflective, corpus);
+            streamingNanos += readAll(streaming, corpus);
+        }
+
+        System.out.printf("%d files, %d rounds%n", corpus.size(), MEASURED_ROUNDS);
+        System.out.printf("reflective %.1f us per corpus%n",
+                reflectiveNanos / NANOS_PER_MICRO / MEASURED_ROUNDS);
+        System.out.printf("streaming  %.1f us per corpus%n",
+                streamingNanos / NANOS_PER_MICRO / MEASURED_ROUNDS);
+    }
+
+    private static long readAll(final ObjectMapper mapper, final ArrayList<byte[]> corpus)
+            throws IOException {
+        long start = System.nanoTime();
+        for (byte[] bytes : corpus) {
+            mapper.readValue(bytes, Input.class);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -6,8 +6,12 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import org.poo.checker.Checker;
 import org.poo.checker.CheckerConstants;
 import org.poo.fileio.Input;
+import org.poo.fileio.InputModule;
+import org.poo.game.ActionLog;
 import org.poo.game.Game;
 import org.poo.game.Stats;
+import org.poo.metrics.AllocationMetrics;
+import org.poo.metrics.FileEvent;
 
 import java.io.File;
 import java.io.IOException;
@@ -20,6 +24,12 @@ import java.util.Objects;
  * The entry point to this homework. It runs the checker that tests your implentation.
  */
 public final class Main {
+    private static final ObjectMapper INPUT_MAPPER = new ObjectMapper()
+            .registerModule(new InputModule());
+    private static final ObjectMapper OUTPUT_MAPPER = new ObjectMapper();
+    private static final ObjectWriter OUTPUT_WRITER =
+            OUTPUT_MAPPER.writerWithDefaultPrettyPrinter();
+
     /**
      * for coding style
      */
@@ -65,23 +75,80 @@ public final class Main {
      */
     public static void action(final String filePath1,
                               final String filePath2) throws IOException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        Input inputData = objectMapper.readValue(new File(CheckerConstants.TESTS_PATH + filePath1),
-                Input.class);
+        process(new File(CheckerConstants.TESTS_PATH + filePath1), new File(filePath2));
+    }
+
+    /**
+     * Plays every game of an input file and writes their output. The object mappers are
+     * shared between calls, so that a long-running process only warms them up once.
+     *
+     * @param inputFile  the input file
+     * @param outputFile the output file
+     * @throws IOException in case of exceptions to reading / writing
+     */
+    public static void process(final File inputFile, final File outputFile) throws IOException {
+        if (GamePipeline.ENABLED) {
+            GamePipeline.run(inputFile, outputFile);
+            if (AllocationMetrics.ENABLED) {
+                AllocationMetrics.printAndReset(System.err, inputFile.getName());
+            }
+            if (ActionLog.ENABLED) {
+                ActionLog.flush();
+            }
+            return;
+        }
 
-        ObjectMapper outputMapper = new ObjectMapper();
-        ArrayNode outputArray = outputMapper.createArrayNode();
+        long allocated = 0;
+        if (AllocationMetrics.ENABLED) {
+            allocated = AllocationMetrics.allocatedBytes();
+        }
+        FileEvent readEvent = new FileEvent();
+        readEvent.begin();
+        Input inputData;
+        if (SelectiveInput.ENABLED) {
+            inputData = SelectiveInput.read(inputFile, INPUT_MAPPER);
+        } else {
+            inputData = INPUT_MAPPER.readValue(inputFile, Input.class);
+        }
+        if (readEvent.shouldCommit()) {
+            readEvent.finish(inputFile.getPath(), "read", inputFile.length());
+        }
+        if (AllocationMetrics.ENABLED) {
+            AllocationMetrics.record("read", allocated);
+        }
+
+        ArrayNode outputArray = OUTPUT_MAPPER.createArrayNode();
 
         int numGames = inputData.getGames().size();
         Stats stats = new Stats();
         for (int i = 0; i < numGames; i++) {
-            Game game = new Game(stats);
-            game.prepareGame(inputData, i);
-            game.parseActions(inputData, i);
-            game.playGame(outputMapper, outputArray);
+            if (GameCache.ENABLED) {
+                GameCache.play(stats, inputData.getPlayerOneDecks(),
+                        inputData.getPlayerTwoDecks(), inputData.getGames().get(i), i,
+                        OUTPUT_MAPPER, outputArray);
+            } else {
+                Game game = new Game(stats);
+                game.prepareGame(inputData, i);
+                game.parseActions(inputData, i);
+                game.playGame(OUTPUT_MAPPER, outputArray);
+            }
         }
 
-        ObjectWriter objectWriter = outputMapper.writerWithDefaultPrettyPrinter();
-        objectWriter.writeValue(new File(filePath2), outputArray);
+        if (AllocationMetrics.ENABLED) {
+            allocated = AllocationMetrics.allocatedBytes();
+        }
+        FileEvent writeEvent = new FileEvent();
+        writeEvent.begin();
+        OUTPUT_WRITER.writeValue(outputFile, outputArray);
+        if (writeEvent.shouldCommit()) {
+            writeEvent.finish(outputFile.getPath(), "write", outputFile.length());
+        }
+        if (AllocationMetrics.ENABLED) {
+            AllocationMetrics.record("write", allocated);
+            AllocationMetrics.printAndReset(System.err, inputFile.getName());
+        }
+        if (ActionLog.ENABLED) {
+            ActionLog.flush();
+        }
     }
 }
@@ -0,0 +1,114 @@
+package org.poo.main;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import org.poo.fileio.CardInput;
+import org.poo.fileio.DecksInput;
+import org.poo.fileio.GameInput;
+import org.poo.fileio.Input;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+/**
+ * Reads an input file without deserializing the decks no game is played with. A first pass
+ * reads the games and collects the deck indices they reference, skipping the decks; a
+ * second pass reads the referenced decks and skips the others at the parser level.
+ * Unreferenced decks are left as null entries, so the indices of the others are unchanged.
+ * Enabled by setting the {@code gwentstone.selective} system property to {@code true}.
+ */
+public final class SelectiveInput {
+    public static final String PROPERTY = "gwentstone.selective";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final TypeReference<ArrayList<CardInput>> DECK =
+            new TypeReference<ArrayList<CardInput>>() { };
+
+    private SelectiveInput() {
+    }
+
+    /**
+     * Reads the games of the input file, and only the decks they are played with.
+     *
+     * @param inputFile the input file
+     * @param mapper    the {@link ObjectMapper} used to read the games and the decks
+     * @return the {@link Input}, with null in place of the decks that are not played
+     * @throws IOException in case of exceptions to reading
+     */
+    public static Input read(final File inputFile, final ObjectMapper mapper)
+            throws IOException {
+        Input input = new Input();
+        BitSet playerOneDecks = new BitSet();
+        BitSet playerTwoDecks = new BitSet();
+
+        try (JsonParser parser = mapper.getFactory().createParser(inputFile)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                if (field.equals("games")) {
+                    ArrayList<GameInput> games = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        GameInput game = mapper.readValue(parser, GameInput.class);
+                        playerOneDecks.set(game.getStartGame().getPlayerOneDeckIdx());
+                        playerTwoDecks.set(game.getStartGame().getPlayerTwoDeckIdx());
+                        games.add(game);
+                    }
+                    input.setGames(games);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        try (JsonParser parser = mapper.getFactory().createParser(inputFile)) {
+            parser.nextToken();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "playerOneDecks" ->
+                            input.setPlayerOneDecks(readDecks(parser, mapper, playerOneDecks));
+                    case "playerTwoDecks" ->
+                            input.setPlayerTwoDecks(readDecks(parser, mapper, playerTwoDecks));
+                    case "games" -> parser.skipChildren();
+                    default -> throw UnrecognizedPropertyException.from(parser, input, field,
+                            null);
+                }
+            }
+        }
+        return input;
+    }
+
+    private static DecksInput readDecks(final JsonParser parser, final ObjectMapper mapper,
+                                        final BitSet referenced) throws IOException {
+        DecksInput decks = new DecksInput();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            parser.nextToken();
+            switch (field) {
+                case "nrCardsInDeck" -> decks.setNrCardsInDeck(parser.getIntValue());
+                case "nrDecks" -> decks.setNrDecks(parser.getIntValue());
+                case "decks" -> {
+                    ArrayList<ArrayList<CardInput>> list = new ArrayList<>();
+                    while (parser.nextToken() == JsonToken.START_ARRAY) {
+                        if (referenced.get(list.size())) {
+                            list.add(mapper.readValue(parser, DECK));
+                        } else {
+                            parser.skipChildren();
+                            list.add(null);
+                        }
+                    }
+                    decks.setDecks(list);
+                }
+                default -> throw UnrecognizedPropertyException.from(parser, decks, field, null);
+            }
+        }
+        return decks;
+    }
+}
@@ -0,0 +1,44 @@
+package org.poo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the execution of a single action.
+ */
+@Name("org.poo.Action")
+@Label("Action")
+@Category({"GwentStone", "Engine"})
+@Description("Execution of a single debug or player action")
+public final class ActionEvent extends jdk.jfr.Event {
+    @Label("Command")
+    private String command;
+    @Label("Error")
+    @Description("The error message produced by the action, if it failed")
+    private String error;
+    @Label("Player")
+    @Description("The player whose turn it was when the action started")
+    private int player;
+    @Label("Round")
+    private int round;
+
+    /**
+     * Fills in the fields of the event and commits it. Callers check
+     * {@link #shouldCommit()} first, so that the values are only computed when recorded.
+     *
+     * @param actionCommand the command that was executed
+     * @param actionError   the error message of the action, or null if it succeeded
+     * @param currentPlayer the player whose turn it was
+     * @param numRound      the round in which the action was executed
+     */
+    public void finish(final String actionCommand, final String actionError,
+                       final int currentPlayer, final int numRound) {
+        command = actionCommand;
+        error = actionError;
+        player = currentPlayer;
+        round = numRound;
+        commit();
+    }
+}
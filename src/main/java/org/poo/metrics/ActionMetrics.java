@@ -0,0 +1,156 @@
+package org.poo.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects per-command counters, per-error counters and latency histograms for every
+ * executed action. Collection is enabled by setting the {@code gwentstone.metrics} system
+ * property to {@code true}. The report is written when the JVM exits to the path given by
+ * the {@code gwentstone.metricsFile} system property ({@value #DEFAULT_FILE} by default):
+ * in Prometheus text format if the path ends in {@code .prom}, as JSON otherwise. When
+ * collection is not enabled, {@link #ENABLED} is a constant {@code false} and the
+ * instrumentation is compiled away by the JIT.
+ */
+public final class ActionMetrics {
+    public static final String PROPERTY = "gwentstone.metrics";
+    public static final String FILE_PROPERTY = "gwentstone.metricsFile";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final String DEFAULT_FILE = "metrics.json";
+
+    private static final String PROMETHEUS_EXTENSION = ".prom";
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final ConcurrentHashMap<String, CommandStats> COMMANDS =
+            new ConcurrentHashMap<>();
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    export(new File(System.getProperty(FILE_PROPERTY, DEFAULT_FILE)));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+    }
+
+    private ActionMetrics() {
+    }
+
+    /**
+     * Records one execution of a command.
+     *
+     * @param command the command that was executed
+     * @param error   the error message produced by the command, or null if it succeeded
+     * @param nanos   how long the execution took, in nanoseconds
+     */
+    public static void record(final String command, final String error, final long nanos) {
+        COMMANDS.computeIfAbsent(command, key -> new CommandStats()).record(error, nanos);
+    }
+
+    /**
+     * Gets the statistics collected so far, ordered by command name.
+     *
+     * @return a map from command to its {@link CommandStats}
+     */
+    public static Map<String, CommandStats> getCommands() {
+        return new TreeMap<>(COMMANDS);
+    }
+
+    /**
+     * Writes the collected statistics to the given file, in Prometheus text format if its
+     * name ends in {@code .prom}, as JSON otherwise.
+     *
+     * @param file the report file
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void export(final File file) throws IOException {
+        if (file.getName().endsWith(PROMETHEUS_EXTENSION)) {
+            try (PrintWriter writer = new PrintWriter(file)) {
+                writePrometheus(writer);
+            }
+        } else {
+            ObjectMapper mapper = new ObjectMapper();
+            mapper.writerWithDefaultPrettyPrinter().writeValue(file, toJson(mapper));
+        }
+    }
+
+    /**
+     * Builds a JSON representation of the collected statistics.
+     *
+     * @param mapper the {@link ObjectMapper} used to create the JSON object
+     * @return an {@link ObjectNode} with one entry per command
+     */
+    public static ObjectNode toJson(final ObjectMapper mapper) {
+        ObjectNode root = mapper.createObjectNode();
+        for (Map.Entry<String, CommandStats> entry : getCommands().entrySet()) {
+            CommandStats stats = entry.getValue();
+            ObjectNode node = mapper.createObjectNode();
+            node.put("count", stats.getCount());
+            node.put("totalNanos", stats.getTotalNanos());
+
+            ObjectNode errors = mapper.createObjectNode();
+            stats.getErrors().forEach(errors::put);
+            node.set("errors", errors);
+
+            ArrayNode histogram = mapper.createArrayNode();
+            for (int i = 0; i < CommandStats.BUCKETS; i++) {
+                if (stats.getBucket(i) > 0) {
+                    ObjectNode bucket = mapper.createObjectNode();
+                    bucket.put("lessThanNanos", i < Long.SIZE - 1 ? 1L << i : Long.MAX_VALUE);
+                    bucket.put("count", stats.getBucket(i));
+                    histogram.add(bucket);
+                }
+            }
+            node.set("latencyHistogram", histogram);
+            root.set(entry.getKey(), node);
+        }
+        return root;
+    }
+
+    private static void writePrometheus(final PrintWriter writer) {
+        Map<String, CommandStats> commands = getCommands();
+
+        writer.println("# TYPE gwentstone_actions_total counter");
+        commands.forEach((command, stats) -> writer.println("gwentstone_actions_total{command=\""
+                + escape(command) + "\"} " + stats.getCount()));
+
+        writer.println("# TYPE gwentstone_action_errors_total counter");
+        commands.forEach((command, stats) -> stats.getErrors().forEach((error, count) ->
+                writer.println("gwentstone_action_errors_total{command=\"" + escape(command)
+                        + "\",error=\"" + escape(error) + "\"} " + count)));
+
+        writer.println("# TYPE gwentstone_action_latency_seconds histogram");
+        commands.forEach((command, stats) -> {
+            String label = "command=\"" + escape(command) + "\"";
+            long cumulative = 0;
+            for (int i = 0; i < CommandStats.BUCKETS; i++) {
+                cumulative += stats.getBucket(i);
+                if (stats.getBucket(i) > 0) {
+                    writer.println("gwentstone_action_latency_seconds_bucket{" + label
+                            + ",le=\"" + Math.pow(2, i) / NANOS_PER_SECOND + "\"} " + cumulative);
+                }
+            }
+            writer.println("gwentstone_action_latency_seconds_bucket{" + label
+                    + ",le=\"+Inf\"} " + stats.getCount());
+            writer.println("gwentstone_action_latency_seconds_sum{" + label + "} "
+                    + stats.getTotalNanos() / NANOS_PER_SECOND);
+            writer.println("gwentstone_action_latency_seconds_count{" + label + "} "
+                    + stats.getCount());
+        });
+    }
+
+    private static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,99 @@
+package org.poo.metrics;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Attributes the bytes allocated by the engine to the phase that allocated them: reading
+ * the input, preparing the games, executing every command, and writing the output. The
+ * counts come from the allocated-bytes counter the JVM keeps for every thread, so a phase
+ * is charged exactly what its thread allocated while running it. Every thread adds to a
+ * single table, with one entry per phase, which {@link org.poo.main.Main} prints on the
+ * standard error and clears after every file. Phases recorded on other threads, such as the
+ * stages of the pipeline or the games of a {@code GameRunner}, are part of the next table
+ * printed.
+ *
+ * <p>Enabled by setting the {@code gwentstone.allocations} system property to
+ * {@code true}. When it is not set, {@link #ENABLED} is a constant {@code false} and the
+ * instrumentation is compiled away by the JIT.
+ */
+public final class AllocationMetrics {
+    public static final String PROPERTY = "gwentstone.allocations";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final ConcurrentHashMap<String, Phase> PHASES = new ConcurrentHashMap<>();
+
+    /**
+     * The number of runs of a phase and the bytes they allocated.
+     */
+    private static final class Phase {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+    }
+
+    private AllocationMetrics() {
+    }
+
+    /**
+     * Gets the number of bytes allocated so far by the calling thread, to be passed to
+     * {@link #record} once the phase is over.
+     *
+     * @return the bytes allocated by the calling thread
+     */
+    public static long allocatedBytes() {
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Charges a phase with the bytes the calling thread allocated since {@code start}.
+     *
+     * @param phase the name of the phase
+     * @param start the value of {@link #allocatedBytes()} when the phase began
+     */
+    public static void record(final String phase, final long start) {
+        long bytes = THREADS.getCurrentThreadAllocatedBytes() - start;
+        Phase totals = PHASES.get(phase);
+        if (totals == null) {
+            totals = PHASES.computeIfAbsent(phase, name -> new Phase());
+        }
+        totals.count.increment();
+        totals.bytes.add(bytes);
+    }
+
+    /**
+     * Prints the table, from the phase that allocated the most to the one that allocated
+     * the least, then clears it.
+     *
+     * @param out   the stream receiving the table
+     * @param title the title of the table
+     */
+    public static void printAndReset(final PrintStream out, final String title) {
+        // phases are never removed, so that no run recorded meanwhile is lost
+        ArrayList<Map.Entry<String, long[]>> phases = new ArrayList<>();
+        for (Map.Entry<String, Phase> phase : PHASES.entrySet()) {
+            long count = phase.getValue().count.sumThenReset();
+            long bytes = phase.getValue().bytes.sumThenReset();
+            if (count > 0) {
+                phases.add(Map.entry(phase.getKey(), new long[] {count, bytes}));
+            }
+        }
+        phases.sort((first, second) -> Long.compare(second.getValue()[1],
+                first.getValue()[1]));
+        long total = 0;
+        out.println("allocations " + title);
+        out.printf("  %-24s %10s %14s %12s%n", "phase", "count", "bytes", "bytes/op");
+        for (Map.Entry<String, long[]> phase : phases) {
+            long[] totals = phase.getValue();
+            out.printf("  %-24s %10d %14d %12d%n", phase.getKey(), totals[0], totals[1],
+                    totals[1] / totals[0]);
+            total += totals[1];
+        }
+        out.printf("  %-24s %10s %14d%n", "total", "", total);
+    }
+}
@@ -0,0 +1,201 @@
+package org.poo.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aggregates gameplay statistics per card and per hero, across every game played by the
+ * process. Every card name gets a small integer id and every statistic is a {@code long}
+ * at {@code id * METRICS + metric} in a primitive array. Each thread updates an array of
+ * its own without any synchronization, and the arrays of all threads are only summed up
+ * when the statistics are read. The arrays of threads that have ended are folded into a
+ * single one, so short-lived (virtual) threads do not accumulate.
+ *
+ * <p>Collection is enabled by setting the {@code gwentstone.analytics} system property to
+ * {@code true}. A JSON report is written when the JVM exits, to the path given by the
+ * {@code gwentstone.analyticsFile} system property ({@value #DEFAULT_FILE} by default).
+ * When collection is not enabled, {@link #ENABLED} is a constant {@code false} and the
+ * instrumentation is compiled away by the JIT.
+ */
+public final class CardAnalytics {
+    public static final String PROPERTY = "gwentstone.analytics";
+    public static final String FILE_PROPERTY = "gwentstone.analyticsFile";
+    public static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    public static final int DAMAGE_DEALT = 0;
+    public static final int DAMAGE_TAKEN = 1;
+    public static final int KILLS = 2;
+    public static final int ABILITIES_USED = 3;
+    public static final int TURNS_ON_BOARD = 4;
+    public static final int GAMES_ENDED = 5;
+    public static final int GAMES_WON = 6;
+    public static final int METRICS = 7;
+
+    private static final String[] METRIC_NAMES = {"damageDealt", "damageTaken", "kills",
+        "abilitiesUsed", "turnsOnBoard", "gamesEnded", "gamesWon"};
+    private static final String DEFAULT_FILE = "analytics.json";
+    private static final int INITIAL_IDS = 32;
+    private static final int MIN_PRUNE_SIZE = 64;
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static final ArrayList<String> NAMES = new ArrayList<>();
+    private static final ArrayList<Stripe> STRIPES = new ArrayList<>();
+    private static final ThreadLocal<Stripe> STRIPE = ThreadLocal.withInitial(
+            CardAnalytics::register);
+    private static long[] retired = new long[0];
+    private static int pruneSize = MIN_PRUNE_SIZE;
+
+    static {
+        if (ENABLED) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    export(new File(System.getProperty(FILE_PROPERTY, DEFAULT_FILE)));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }));
+        }
+    }
+
+    /**
+     * Counters updated by a single thread.
+     */
+    private static final class Stripe {
+        private final Thread owner = Thread.currentThread();
+        private volatile long[] counters = new long[INITIAL_IDS * METRICS];
+
+        void add(final int idx, final long amount) {
+            long[] current = counters;
+            if (idx >= current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, idx + METRICS));
+                counters = current;
+            }
+            current[idx] += amount;
+        }
+    }
+
+    private CardAnalytics() {
+    }
+
+    /**
+     * Gets the id of a card or hero, assigning a new one the first time a name is seen.
+     *
+     * @param name the name of the card or hero
+     * @return the id of the name
+     */
+    public static int idOf(final String name) {
+        Integer id = IDS.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (NAMES) {
+            return IDS.computeIfAbsent(name, key -> {
+                NAMES.add(key);
+                return NAMES.size() - 1;
+            });
+        }
+    }
+
+    /**
+     * Adds an amount to one of the statistics of a card or hero, on the calling thread's
+     * own counters.
+     *
+     * @param id     the id returned by {@link #idOf}
+     * @param metric one of the metric constants of this class
+     * @param amount the amount to add
+     */
+    public static void record(final int id, final int metric, final long amount) {
+        STRIPE.get().add(id * METRICS + metric, amount);
+    }
+
+    /**
+     * Sums up the counters of every thread. Updates made concurrently with the call may
+     * or may not be included.
+     *
+     * @return the statistics, indexed by {@code id * METRICS + metric}
+     */
+    public static long[] snapshot() {
+        long[] total = new long[IDS.size() * METRICS];
+        synchronized (STRIPES) {
+            addTo(total, retired);
+            for (Stripe stripe : STRIPES) {
+                addTo(total, stripe.counters);
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Creates the counters of the calling thread. Once there are many of them, the
+     * counters of the threads that have ended are folded into {@code retired}.
+     */
+    private static Stripe register() {
+        Stripe stripe = new Stripe();
+        synchronized (STRIPES) {
+            STRIPES.add(stripe);
+            if (STRIPES.size() >= pruneSize) {
+                for (int i = STRIPES.size() - 1; i >= 0; i--) {
+                    Stripe other = STRIPES.get(i);
+                    if (!other.owner.isAlive()) {
+                        if (retired.length < other.counters.length) {
+                            retired = Arrays.copyOf(retired, other.counters.length);
+                        }
+                        addTo(retired, other.counters);
+                        STRIPES.remove(i);
+                    }
+                }
+                pruneSize = Math.max(MIN_PRUNE_SIZE, STRIPES.size() * 2);
+            }
+        }
+        return stripe;
+    }
+
+    private static void addTo(final long[] total, final long[] counters) {
+        for (int i = 0; i < Math.min(total.length, counters.length); i++) {
+            total[i] += counters[i];
+        }
+    }
+
+    /**
+     * Builds a JSON representation of the collected statistics.
+     *
+     * @param mapper the {@link ObjectMapper} used to create the JSON object
+     * @return an {@link ObjectNode} with one entry per card or hero, ordered by name
+     */
+    public static ObjectNode toJson(final ObjectMapper mapper) {
+        long[] total = snapshot();
+        TreeMap<String, Integer> ids = new TreeMap<>(IDS);
+        ObjectNode root = mapper.createObjectNode();
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            int base = entry.getValue() * METRICS;
+            if (base >= total.length) {
+                continue;
+            }
+            ObjectNode node = mapper.createObjectNode();
+            for (int metric = 0; metric < METRICS; metric++) {
+                node.put(METRIC_NAMES[metric], total[base + metric]);
+            }
+            root.set(entry.getKey(), node);
+        }
+        return root;
+    }
+
+    /**
+     * Writes the collected statistics to the given file, as JSON.
+     *
+     * @param file the report file
+     * @throws IOException in case of exceptions to writing
+     */
+    public static void export(final File file) throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.writerWithDefaultPrettyPrinter().writeValue(file, toJson(mapper));
+    }
+}
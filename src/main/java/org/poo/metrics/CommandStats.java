@@ -0,0 +1,69 @@
+package org.poo.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution count, error counts and latency histogram of a single command. The histogram
+ * uses power-of-two buckets: bucket {@code i} holds the executions that took less than
+ * {@code 2^i} nanoseconds, but at least {@code 2^(i-1)}.
+ */
+public final class CommandStats {
+    static final int BUCKETS = Long.SIZE + 1;
+
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    void record(final String error, final long nanos) {
+        count.increment();
+        totalNanos.add(nanos);
+        buckets.incrementAndGet(Long.SIZE - Long.numberOfLeadingZeros(Math.max(nanos, 0)));
+        if (error != null) {
+            errors.computeIfAbsent(error, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Gets the number of times the command was executed.
+     *
+     * @return the execution count
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the total time spent executing the command.
+     *
+     * @return the total latency in nanoseconds
+     */
+    public long getTotalNanos() {
+        return totalNanos.sum();
+    }
+
+    /**
+     * Gets the number of executions that fell in the given histogram bucket.
+     *
+     * @param bucket the bucket index, between 0 and 64
+     * @return the number of executions in the bucket
+     */
+    public long getBucket(final int bucket) {
+        return buckets.get(bucket);
+    }
+
+    /**
+     * Gets how many times each error message was produced by the command.
+     *
+     * @return a map from error message to its count
+     */
+    public Map<String, Long> getErrors() {
+        TreeMap<String, Long> snapshot = new TreeMap<>();
+        errors.forEach((error, adder) -> snapshot.put(error, adder.sum()));
+        return snapshot;
+    }
+}
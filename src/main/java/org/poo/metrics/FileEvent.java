@@ -0,0 +1,41 @@
+package org.poo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the reading of an input file or the writing of an
+ * output file.
+ */
+@Name("org.poo.File")
+@Label("Game File")
+@Category({"GwentStone", "I/O"})
+@Description("Deserialization of an input file or serialization of an output file")
+public final class FileEvent extends jdk.jfr.Event {
+    @Label("Path")
+    private String path;
+    @Label("Operation")
+    @Description("Either read or write")
+    private String operation;
+    @Label("Size")
+    @DataAmount
+    private long size;
+
+    /**
+     * Fills in the fields of the event and commits it. Callers check
+     * {@link #shouldCommit()} first, so that the values are only computed when recorded.
+     *
+     * @param filePath the path of the file
+     * @param fileOperation either {@code "read"} or {@code "write"}
+     * @param fileSize the size of the file in bytes
+     */
+    public void finish(final String filePath, final String fileOperation, final long fileSize) {
+        path = filePath;
+        operation = fileOperation;
+        size = fileSize;
+        commit();
+    }
+}
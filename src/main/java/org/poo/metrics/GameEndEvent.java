@@ -0,0 +1,37 @@
+package org.poo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event marking the end of a game, when a hero is killed.
+ */
+@Name("org.poo.GameEnd")
+@Label("Game End")
+@Category({"GwentStone", "Engine"})
+@Description("A hero was killed and the game ended")
+public final class GameEndEvent extends jdk.jfr.Event {
+    @Label("Winner")
+    private int winner;
+    @Label("Round")
+    private int round;
+    @Label("Total Games Played")
+    private int totalGamesPlayed;
+
+    /**
+     * Fills in the fields of the event and commits it. Callers check
+     * {@link #shouldCommit()} first, so that the values are only computed when recorded.
+     *
+     * @param winningPlayer the index of the player who won
+     * @param numRound      the round in which the game ended
+     * @param totalGames    the number of games played so far, including this one
+     */
+    public void finish(final int winningPlayer, final int numRound, final int totalGames) {
+        winner = winningPlayer;
+        round = numRound;
+        totalGamesPlayed = totalGames;
+        commit();
+    }
+}
@@ -0,0 +1,55 @@
+package org.poo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the preparation of a game: parsing the decks and heroes
+ * and shuffling the chosen decks.
+ */
+@Name("org.poo.PrepareGame")
+@Label("Prepare Game")
+@Category({"GwentStone", "Engine"})
+@Description("Parsing of the decks and heroes and shuffling of the chosen decks")
+public final class PrepareGameEvent extends jdk.jfr.Event {
+    @Label("Game Index")
+    private int gameIndex;
+    @Label("Shuffle Seed")
+    private int shuffleSeed;
+    @Label("Starting Player")
+    private int startingPlayer;
+    @Label("Player One Hero")
+    private String playerOneHero;
+    @Label("Player Two Hero")
+    private String playerTwoHero;
+    @Label("Player One Deck Size")
+    private int playerOneDeckSize;
+    @Label("Player Two Deck Size")
+    private int playerTwoDeckSize;
+
+    /**
+     * Fills in the fields of the event and commits it. Callers check
+     * {@link #shouldCommit()} first, so that the values are only computed when recorded.
+     *
+     * @param index       the index of the game in the input
+     * @param seed        the seed used to shuffle the decks
+     * @param starting    the index of the starting player
+     * @param heroOne     the name of the first player's hero
+     * @param heroTwo     the name of the second player's hero
+     * @param deckOneSize the number of cards in the first player's deck
+     * @param deckTwoSize the number of cards in the second player's deck
+     */
+    public void finish(final int index, final int seed, final int starting, final String heroOne,
+                       final String heroTwo, final int deckOneSize, final int deckTwoSize) {
+        gameIndex = index;
+        shuffleSeed = seed;
+        startingPlayer = starting;
+        playerOneHero = heroOne;
+        playerTwoHero = heroTwo;
+        playerOneDeckSize = deckOneSize;
+        playerTwoDeckSize = deckTwoSize;
+        commit();
+    }
+}
@@ -0,0 +1,43 @@
+package org.poo.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight Recorder event covering the start of a round: drawing cards, adding mana and
+ * resetting the attack status of the cards and heroes.
+ */
+@Name("org.poo.PrepareRound")
+@Label("Prepare Round")
+@Category({"GwentStone", "Engine"})
+@Description("Card draw, mana gain and attack reset at the start of a round")
+public final class PrepareRoundEvent extends jdk.jfr.Event {
+    @Label("Round")
+    private int round;
+    @Label("Player One Mana")
+    private int playerOneMana;
+    @Label("Player Two Mana")
+    private int playerTwoMana;
+    @Label("Cards On Board")
+    private int cardsOnBoard;
+
+    /**
+     * Fills in the fields of the event and commits it. Callers check
+     * {@link #shouldCommit()} first, so that the values are only computed when recorded.
+     *
+     * @param numRound  the round being prepared
+     * @param manaOne   the mana of the first player after the preparation
+     * @param manaTwo   the mana of the second player after the preparation
+     * @param numCards  the number of cards on the board
+     */
+    public void finish(final int numRound, final int manaOne, final int manaTwo,
+                       final int numCards) {
+        round = numRound;
+        playerOneMana = manaOne;
+        playerTwoMana = manaTwo;
+        cardsOnBoard = numCards;
+        commit();
+    }
+}
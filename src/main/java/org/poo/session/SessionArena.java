@@ -0,0 +1,193 @@
+package org.poo.session;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.fileio.ActionsInput;
+import org.poo.game.Action;
+import org.poo.game.DebugAction;
+import org.poo.game.Game;
+import org.poo.game.GameSnapshot;
+import org.poo.game.Stats;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Keeps game sessions off the Java heap. Every session owns a fixed-size slot in large
+ * direct buffers (slabs), holding the {@link GameSnapshot} of its game; a live session
+ * costs no object at all, only two entries in primitive arrays, so the work of the garbage
+ * collector does not grow with the number of open sessions. An action is executed on a
+ * game rebuilt from the slot, which is written back unless the action was a debug query.
+ * Closed slots are recycled through a free list, and a session id carries the generation of
+ * its slot, so that the id of a closed session is never mistaken for a newer one.
+ */
+public final class SessionArena {
+    private static final int INITIAL_SLOTS = 16;
+    private static final int SLOT_BITS = 32;
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+
+    private final int slotSize;
+    private final int slotsPerSlab;
+    private final ArrayList<ByteBuffer> slabs = new ArrayList<>();
+    private final byte[] scratch;
+    private final DataOutputStream scratchOut;
+    private int scratchSize;
+    private int[] generations = new int[INITIAL_SLOTS];
+    private int[] freeSlots = new int[INITIAL_SLOTS];
+    private int freeCount;
+    private int slotCount;
+    private int liveCount;
+
+    /**
+     * Creates a session arena.
+     *
+     * @param slotSize     the size of a slot in bytes, which bounds the size of the
+     *                     snapshot of a game
+     * @param slotsPerSlab the number of slots allocated at once when the arena grows
+     */
+    public SessionArena(final int slotSize, final int slotsPerSlab) {
+        this.slotSize = slotSize;
+        this.slotsPerSlab = slotsPerSlab;
+        scratch = new byte[slotSize - Integer.BYTES];
+        scratchOut = new DataOutputStream(new OutputStream() {
+            @Override
+            public void write(final int b) {
+                if (scratchSize == scratch.length) {
+                    throw new BufferOverflowException();
+                }
+                scratch[scratchSize++] = (byte) b;
+            }
+
+            @Override
+            public void write(final byte[] bytes, final int off, final int len) {
+                if (len > scratch.length - scratchSize) {
+                    throw new BufferOverflowException();
+                }
+                System.arraycopy(bytes, off, scratch, scratchSize, len);
+                scratchSize += len;
+            }
+        });
+    }
+
+    /**
+     * Stores a prepared and started game as a new session. The game object is not kept.
+     *
+     * @param game the {@link Game} hosted by the session, with its own {@link Stats}
+     * @return the id of the new session
+     * @throws IOException if the snapshot of the game does not fit in a slot
+     */
+    public synchronized long open(final Game game) throws IOException {
+        encode(game);
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            slot = allocateSlot();
+        }
+        store(slot);
+        liveCount++;
+        return (long) generations[slot] << SLOT_BITS | slot;
+    }
+
+    /**
+     * Executes an action in the given session.
+     *
+     * @param id     the id of the session
+     * @param action the {@link ActionsInput} to execute
+     * @param mapper the {@link ObjectMapper} used to create the output
+     * @return the output of the action, or null if it produces none
+     * @throws IOException if the slot does not hold a valid snapshot, or if the new state of
+     *                     the game does not fit in it
+     */
+    public synchronized ObjectNode execute(final long id, final ActionsInput action,
+                                           final ObjectMapper mapper) throws IOException {
+        int slot = slotOf(id);
+        ByteBuffer slab = slabs.get(slot / slotsPerSlab);
+        int offset = slot % slotsPerSlab * slotSize;
+        Game game = GameSnapshot.read(slab.slice(offset + Integer.BYTES,
+                slab.getInt(offset)), new Stats());
+
+        Action parsed = game.parseAction(action);
+        ObjectNode result = game.executeAction(mapper, parsed);
+        if (!(parsed instanceof DebugAction)) {
+            encode(game);
+            store(slot);
+        }
+        return result;
+    }
+
+    /**
+     * Closes a session and recycles its slot.
+     *
+     * @param id the id of the session
+     */
+    public synchronized void close(final long id) {
+        int slot = slotOf(id);
+        generations[slot]++;
+        freeSlots[freeCount++] = slot;
+        liveCount--;
+    }
+
+    /**
+     * Gets the number of open sessions.
+     *
+     * @return the number of open sessions
+     */
+    public synchronized int getLiveCount() {
+        return liveCount;
+    }
+
+    /**
+     * Gets the off-heap memory reserved by the arena.
+     *
+     * @return the total size of the slabs, in bytes
+     */
+    public synchronized long getReservedBytes() {
+        return (long) slabs.size() * slotsPerSlab * slotSize;
+    }
+
+    private int slotOf(final long id) {
+        int slot = (int) (id & SLOT_MASK);
+        if (slot >= slotCount || generations[slot] != (int) (id >>> SLOT_BITS)) {
+            throw new IllegalArgumentException("Unknown session " + id + ".");
+        }
+        return slot;
+    }
+
+    private int allocateSlot() {
+        if (slotCount == slabs.size() * slotsPerSlab) {
+            slabs.add(ByteBuffer.allocateDirect(slotsPerSlab * slotSize));
+        }
+        if (slotCount == generations.length) {
+            generations = Arrays.copyOf(generations, slotCount * 2);
+            freeSlots = Arrays.copyOf(freeSlots, slotCount * 2);
+        }
+        return slotCount++;
+    }
+
+    /**
+     * Writes the snapshot of a game to the scratch buffer, leaving every slot untouched if
+     * it does not fit.
+     */
+    private void encode(final Game game) throws IOException {
+        scratchSize = 0;
+        try {
+            GameSnapshot.write(game, scratchOut, true);
+        } catch (BufferOverflowException e) {
+            throw new IOException("The game does not fit in a slot of " + slotSize
+                    + " bytes.", e);
+        }
+    }
+
+    private void store(final int slot) {
+        ByteBuffer slab = slabs.get(slot / slotsPerSlab);
+        int offset = slot % slotsPerSlab * slotSize;
+        slab.putInt(offset, scratchSize);
+        slab.put(offset + Integer.BYTES, scratch, 0, scratchSize);
+    }
+}
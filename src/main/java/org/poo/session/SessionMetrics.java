@@ -0,0 +1,124 @@
+package org.poo.session;
+
+/**
+ * Counters and accumulated latencies of a {@link SessionStore}. A hit is an access to a
+ * session that is still resident in memory, a restore is an access that had to read the
+ * session back from its on-disk snapshot. The store hands out copies, which do not change
+ * afterwards.
+ */
+public final class SessionMetrics {
+    private static final double NANOS_PER_MICRO = 1000.0;
+
+    private long hits;
+    private long hitNanos;
+    private long restores;
+    private long restoreNanos;
+    private long evictions;
+    private long spillNanos;
+
+    SessionMetrics() {
+    }
+
+    SessionMetrics(final SessionMetrics other) {
+        hits = other.hits;
+        hitNanos = other.hitNanos;
+        restores = other.restores;
+        restoreNanos = other.restoreNanos;
+        evictions = other.evictions;
+        spillNanos = other.spillNanos;
+    }
+
+    void recordHit(final long nanos) {
+        hits++;
+        hitNanos += nanos;
+    }
+
+    void recordRestore(final long nanos) {
+        restores++;
+        restoreNanos += nanos;
+    }
+
+    void recordEviction(final long nanos) {
+        evictions++;
+        spillNanos += nanos;
+    }
+
+    /**
+     * Gets the number of accesses served from memory.
+     *
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of accesses that restored a session from disk.
+     *
+     * @return the number of restores
+     */
+    public long getRestores() {
+        return restores;
+    }
+
+    /**
+     * Gets the number of sessions spilled to disk.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Gets the average latency of a hit.
+     *
+     * @return the average hit latency in microseconds, or 0 if there were no hits
+     */
+    public double getAverageHitMicros() {
+        return average(hitNanos, hits);
+    }
+
+    /**
+     * Gets the average latency of restoring a session from disk.
+     *
+     * @return the average restore latency in microseconds, or 0 if there were no restores
+     */
+    public double getAverageRestoreMicros() {
+        return average(restoreNanos, restores);
+    }
+
+    /**
+     * Gets the average latency of spilling a session to disk.
+     *
+     * @return the average spill latency in microseconds, or 0 if there were no evictions
+     */
+    public double getAverageSpillMicros() {
+        return average(spillNanos, evictions);
+    }
+
+    private static double average(final long nanos, final long count) {
+        if (count == 0) {
+            return 0;
+        }
+        return nanos / NANOS_PER_MICRO / count;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionMetrics{"
+                + "hits="
+                + hits
+                + ", avgHitMicros="
+                + getAverageHitMicros()
+                + ", restores="
+                + restores
+                + ", avgRestoreMicros="
+                + getAverageRestoreMicros()
+                + ", evictions="
+                + evictions
+                + ", avgSpillMicros="
+                + getAverageSpillMicros()
+                + '}';
+    }
+}
@@ -0,0 +1,187 @@
+package org.poo.session;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.poo.fileio.ActionsInput;
+import org.poo.game.Game;
+import org.poo.game.GameSnapshot;
+import org.poo.game.Stats;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps long-lived games in memory, bounded both by the number of resident sessions and by
+ * how long a session may stay idle. Sessions over either bound are spilled to a
+ * {@link GameSnapshot} on disk and restored transparently on their next action, so resident
+ * memory stays flat no matter how many mostly idle matches are open. The bounds are enforced
+ * whenever a session is opened or used; a host whose traffic may stop calls
+ * {@link #evictIdle()} periodically, so that idle sessions are spilled all the same.
+ */
+public final class SessionStore {
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final int INITIAL_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private final int maxResident;
+    private final long maxIdleNanos;
+    private final Path spillDirectory;
+    private final LinkedHashMap<Long, Session> resident = new LinkedHashMap<>(
+            INITIAL_CAPACITY, LOAD_FACTOR, true);
+    private final SessionMetrics metrics = new SessionMetrics();
+    private long nextId;
+
+    /**
+     * A resident game together with the moment it was last used.
+     */
+    private static final class Session {
+        private final Game game;
+        private long lastAccess;
+
+        Session(final Game game, final long lastAccess) {
+            this.game = game;
+            this.lastAccess = lastAccess;
+        }
+    }
+
+    /**
+     * Creates a session store.
+     *
+     * @param maxResident    the maximum number of sessions kept in memory
+     * @param maxIdleMillis  how long a session may stay unused before it is spilled to disk
+     * @param spillDirectory the directory holding the snapshots of evicted sessions
+     * @throws IOException in case the spill directory cannot be created
+     */
+    public SessionStore(final int maxResident, final long maxIdleMillis,
+                        final Path spillDirectory) throws IOException {
+        this.maxResident = maxResident;
+        this.maxIdleNanos = maxIdleMillis * NANOS_PER_MILLI;
+        this.spillDirectory = spillDirectory;
+        Files.createDirectories(spillDirectory);
+    }
+
+    /**
+     * Registers a prepared and started game as a new session.
+     *
+     * @param game the {@link Game} hosted by the session, with its own {@link Stats}
+     * @return the id of the new session
+     * @throws IOException in case of exceptions while spilling other sessions
+     */
+    public synchronized long open(final Game game) throws IOException {
+        long id = nextId++;
+        resident.put(id, new Session(game, System.nanoTime()));
+        evict();
+        return id;
+    }
+
+    /**
+     * Executes an action in the given session, restoring it from disk if it was evicted.
+     *
+     * @param id     the id of the session
+     * @param action the {@link ActionsInput} to execute
+     * @param mapper the {@link ObjectMapper} used to create the output
+     * @return the output of the action, or null if it produces none
+     * @throws IOException in case of exceptions while restoring or spilling sessions
+     */
+    public synchronized ObjectNode execute(final long id, final ActionsInput action,
+                                           final ObjectMapper mapper) throws IOException {
+        Game game = acquire(id);
+        ObjectNode result = game.executeAction(mapper, game.parseAction(action));
+        evict();
+        return result;
+    }
+
+    /**
+     * Spills to disk the sessions over the resident limit or idle for too long, as opening
+     * or using a session does.
+     *
+     * @throws IOException in case of exceptions while spilling sessions
+     */
+    public synchronized void evictIdle() throws IOException {
+        evict();
+    }
+
+    /**
+     * Closes a session, removing it from memory and from disk.
+     *
+     * @param id the id of the session
+     * @throws IOException in case the snapshot of the session cannot be deleted
+     */
+    public synchronized void close(final long id) throws IOException {
+        resident.remove(id);
+        Files.deleteIfExists(snapshotPath(id));
+    }
+
+    /**
+     * Gets the number of sessions currently held in memory.
+     *
+     * @return the number of resident sessions
+     */
+    public synchronized int getResidentCount() {
+        return resident.size();
+    }
+
+    /**
+     * Gets the hit, restore and eviction metrics of this store so far.
+     *
+     * @return a copy of the {@link SessionMetrics} of the store
+     */
+    public synchronized SessionMetrics getMetrics() {
+        return new SessionMetrics(metrics);
+    }
+
+    private Game acquire(final long id) throws IOException {
+        long start = System.nanoTime();
+        Session session = resident.get(id);
+        if (session != null) {
+            session.lastAccess = System.nanoTime();
+            metrics.recordHit(session.lastAccess - start);
+            return session.game;
+        }
+
+        Path path = snapshotPath(id);
+        if (!Files.exists(path)) {
+            throw new IllegalArgumentException("Unknown session " + id + ".");
+        }
+        Game game = GameSnapshot.read(ByteBuffer.wrap(Files.readAllBytes(path)), new Stats());
+        Files.delete(path);
+        long now = System.nanoTime();
+        resident.put(id, new Session(game, now));
+        metrics.recordRestore(now - start);
+        return game;
+    }
+
+    private void evict() throws IOException {
+        long now = System.nanoTime();
+        Iterator<Map.Entry<Long, Session>> iterator = resident.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Session> eldest = iterator.next();
+            if (resident.size() <= maxResident
+                    && now - eldest.getValue().lastAccess < maxIdleNanos) {
+                break;
+            }
+            spill(eldest.getKey(), eldest.getValue().game);
+            iterator.remove();
+        }
+    }
+
+    private void spill(final long id, final Game game) throws IOException {
+        long start = System.nanoTime();
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(snapshotPath(id))))) {
+            GameSnapshot.write(game, out, true);
+        }
+        metrics.recordEviction(System.nanoTime() - start);
+    }
+
+    private Path snapshotPath(final long id) {
+        return spillDirectory.resolve("session_" + id + ".bin");
+    }
+}
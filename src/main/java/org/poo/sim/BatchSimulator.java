@@ -0,0 +1,555 @@
+package org.poo.sim;
+
+import org.poo.fileio.CardInput;
+import org.poo.game.GlobalVariables;
+import org.poo.game.LegalActions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Plays a batch of independent games between the same two decks in lockstep, both players
+ * following the {@link GreedyPolicy}: at every step, each game still running plays one
+ * action. The games are not made of objects. The state of the whole batch lives in
+ * primitive arrays, laid out game after game: one entry per game, per player, per row or
+ * per board slot, with the cards identified by their kind. Row-wide effects (the heroes'
+ * abilities) are plain loops over the contiguous slots of a row, and the attack status of
+ * the cards needs no reset between rounds, since cards remember the round of their last
+ * attack as {@code Game} does.
+ *
+ * <p>The games are played exactly as {@link Simulator} plays them with a
+ * {@link GreedyPolicy}: same shuffles, same legal actions in the same order and same
+ * tie-breaking draws, so both report the same winners. A batch simulator reuses its arrays
+ * between batches and must not be shared between threads.
+ */
+public final class BatchSimulator {
+    private static final int RUNNING = -1;
+
+    private static final int PLAIN = 0;
+    private static final int SENTINEL = 1;
+    private static final int BERSERKER = 2;
+    private static final int GOLIATH = 3;
+    private static final int WARDEN = 4;
+    private static final int THE_RIPPER = 5;
+    private static final int MIRAJ = 6;
+    private static final int THE_CURSED_ONE = 7;
+    private static final int DISCIPLE = 8;
+
+    private static final int LORD_ROYCE = 0;
+    private static final int EMPRESS_THORINA = 1;
+    private static final int KING_MUDFACE = 2;
+    private static final int GENERAL_KOCIORAW = 3;
+
+    private static final int ROWS = GlobalVariables.ROWS_NUMBER;
+    private static final int ROW_SIZE = GlobalVariables.MAX_ROW_SIZE;
+    private static final int NOT_FROZEN = Integer.MIN_VALUE;
+    private static final int RIPPER_DAMAGE = 2;
+    private static final int DISCIPLE_HEAL = 2;
+
+    private static final int COMMAND_SHIFT = 24;
+    private static final int FIELD_BITS = 6;
+    private static final int FIELD_MASK = (1 << FIELD_BITS) - 1;
+    private static final int OPERAND_MASK = (1 << COMMAND_SHIFT) - 1;
+    private static final int ATTACKER_X = 3;
+    private static final int ATTACKER_Y = 2;
+    private static final int ATTACKED_X = 1;
+    private static final int ATTACKED_Y = 0;
+
+    // the highest priority of the actions listed after the cards to place, and after the
+    // actions of the cards: once an action beats them, the rest of the list is skipped,
+    // since it can neither be chosen nor draw a random number
+    private static final int AFTER_PLACE = Math.max(Math.max(
+            GreedyPolicy.priorityOf(LegalActions.CARD_USES_ATTACK),
+            GreedyPolicy.priorityOf(LegalActions.CARD_USES_ABILITY)),
+            Math.max(GreedyPolicy.priorityOf(LegalActions.USE_ATTACK_HERO),
+                    afterCards()));
+    private static final int AFTER_CARDS = afterCards();
+
+    private static final long MULTIPLIER = 0x5DEECE66DL;
+    private static final long ADDEND = 0xBL;
+    private static final long SEED_MASK = (1L << 48) - 1;
+    private static final int SEED_BITS = 48;
+    private static final int INT_BITS = 31;
+
+    private final int[][] cardKinds = new int[2][];
+    private final int[][] cardMana = new int[2][];
+    private final int[][] cardAttack = new int[2][];
+    private final int[][] cardHealth = new int[2][];
+    private final int[] heroKind = new int[2];
+    private final int[] heroMana = new int[2];
+    private int cards;
+
+    // per game
+    private int[] currentPlayer = new int[0];
+    private int[] startingPlayer = new int[0];
+    private int[] round = new int[0];
+    private int[] turn = new int[0];
+    private int[] winner = new int[0];
+    private long[] random = new long[0];
+
+    // per game and player
+    private int[] mana = new int[0];
+    private int[] heroHealth = new int[0];
+    private int[] heroAttackedRound = new int[0];
+    private int[] deckPos = new int[0];
+    private int[] handSize = new int[0];
+    private int[] deck = new int[0];
+    private int[] hand = new int[0];
+
+    // per game and row, then per board slot
+    private int[] rowSize = new int[0];
+    private int[] kind = new int[0];
+    private int[] attack = new int[0];
+    private int[] health = new int[0];
+    private int[] frozenTurn = new int[0];
+    private int[] attackedRound = new int[0];
+
+    private final long[] shuffleRandom = new long[1];
+    private int best;
+    private int bestPriority;
+    private int ties;
+
+    /**
+     * Plays a batch of games between two decks, until one of the heroes is killed or until
+     * {@link Simulator#MAX_ACTIONS} actions have been played. Game {@code i} starts with
+     * {@code startingPlayers[i]} and uses {@code seeds[i]} as {@link Simulator#play} does.
+     *
+     * @param playerOneDeck   the deck of the first player
+     * @param playerOneHero   the hero of the first player
+     * @param playerTwoDeck   the deck of the second player
+     * @param playerTwoHero   the hero of the second player
+     * @param startingPlayers the player starting each game, 1 or 2
+     * @param seeds           the seed of each game
+     * @return the index of the winner of each game, or {@link Simulator#DRAW}
+     */
+    public int[] play(final ArrayList<CardInput> playerOneDeck, final CardInput playerOneHero,
+                      final ArrayList<CardInput> playerTwoDeck, final CardInput playerTwoHero,
+                      final int[] startingPlayers, final int[] seeds) {
+        int games = seeds.length;
+        loadDeck(0, playerOneDeck, playerOneHero);
+        loadDeck(1, playerTwoDeck, playerTwoHero);
+        cards = Math.max(playerOneDeck.size(), playerTwoDeck.size());
+        reserve(games);
+
+        for (int g = 0; g < games; g++) {
+            startGame(g, startingPlayers[g], seeds[g]);
+        }
+        int running = games;
+        for (int step = 0; step < Simulator.MAX_ACTIONS && running > 0; step++) {
+            for (int g = 0; g < games; g++) {
+                if (winner[g] == RUNNING) {
+                    play(g, choose(g));
+                    if (winner[g] != RUNNING) {
+                        running--;
+                    }
+                }
+            }
+        }
+
+        int[] winners = Arrays.copyOf(winner, games);
+        for (int g = 0; g < games; g++) {
+            if (winners[g] == RUNNING) {
+                winners[g] = Simulator.DRAW;
+            }
+        }
+        return winners;
+    }
+
+    private void loadDeck(final int p, final ArrayList<CardInput> cardsInput,
+                          final CardInput hero) {
+        cardKinds[p] = new int[cardsInput.size()];
+        cardMana[p] = new int[cardsInput.size()];
+        cardAttack[p] = new int[cardsInput.size()];
+        cardHealth[p] = new int[cardsInput.size()];
+        for (int i = 0; i < cardsInput.size(); i++) {
+            CardInput card = cardsInput.get(i);
+            cardKinds[p][i] = kindOf(card.getName());
+            cardMana[p][i] = card.getMana();
+            cardAttack[p][i] = card.getAttackDamage();
+            cardHealth[p][i] = card.getHealth();
+        }
+        heroKind[p] = switch (hero.getName()) {
+            case "Lord Royce" -> LORD_ROYCE;
+            case "Empress Thorina" -> EMPRESS_THORINA;
+            case "King Mudface" -> KING_MUDFACE;
+            case "General Kocioraw" -> GENERAL_KOCIORAW;
+            default -> throw new IllegalArgumentException("Unknown hero " + hero.getName());
+        };
+        heroMana[p] = hero.getMana();
+    }
+
+    private static int kindOf(final String name) {
+        return switch (name) {
+            case "Sentinel" -> SENTINEL;
+            case "Berserker" -> BERSERKER;
+            case "Goliath" -> GOLIATH;
+            case "Warden" -> WARDEN;
+            case "The Ripper" -> THE_RIPPER;
+            case "Miraj" -> MIRAJ;
+            case "The Cursed One" -> THE_CURSED_ONE;
+            case "Disciple" -> DISCIPLE;
+            default -> PLAIN;
+        };
+    }
+
+    private void reserve(final int games) {
+        if (winner.length < games) {
+            currentPlayer = new int[games];
+            startingPlayer = new int[games];
+            round = new int[games];
+            turn = new int[games];
+            winner = new int[games];
+            random = new long[games];
+            mana = new int[games * 2];
+            heroHealth = new int[games * 2];
+            heroAttackedRound = new int[games * 2];
+            deckPos = new int[games * 2];
+            handSize = new int[games * 2];
+            rowSize = new int[games * ROWS];
+            kind = new int[games * ROWS * ROW_SIZE];
+            attack = new int[games * ROWS * ROW_SIZE];
+            health = new int[games * ROWS * ROW_SIZE];
+            frozenTurn = new int[games * ROWS * ROW_SIZE];
+            attackedRound = new int[games * ROWS * ROW_SIZE];
+        }
+        if (deck.length < games * 2 * cards) {
+            deck = new int[games * 2 * cards];
+            hand = new int[games * 2 * cards];
+        }
+    }
+
+    private void startGame(final int g, final int starting, final int seed) {
+        for (int p = 0; p < 2; p++) {
+            int gp = g * 2 + p;
+            int base = gp * cards;
+            int size = cardKinds[p].length;
+            for (int i = 0; i < size; i++) {
+                deck[base + i] = i;
+            }
+            // the shuffle of Collections.shuffle, with the Random of Deck.shuffleDeck
+            shuffleRandom[0] = (seed ^ MULTIPLIER) & SEED_MASK;
+            for (int i = size; i > 1; i--) {
+                int j = nextInt(shuffleRandom, 0, i);
+                int card = deck[base + i - 1];
+                deck[base + i - 1] = deck[base + j];
+                deck[base + j] = card;
+            }
+            deckPos[gp] = 0;
+            handSize[gp] = 0;
+            mana[gp] = 0;
+            heroHealth[gp] = GlobalVariables.HERO_HEALTH;
+            heroAttackedRound[gp] = 0;
+        }
+        Arrays.fill(rowSize, g * ROWS, (g + 1) * ROWS, 0);
+        random[g] = (seed ^ MULTIPLIER) & SEED_MASK;
+        winner[g] = RUNNING;
+        startingPlayer[g] = starting;
+        currentPlayer[g] = starting;
+        round[g] = 1;
+        turn[g] = 0;
+        prepareRound(g);
+    }
+
+    private void prepareRound(final int g) {
+        int gained = Math.min(round[g], GlobalVariables.MANA_LIMIT);
+        for (int p = 0; p < 2; p++) {
+            int gp = g * 2 + p;
+            if (deckPos[gp] < cardKinds[p].length) {
+                hand[gp * cards + handSize[gp]++] = deck[gp * cards + deckPos[gp]++];
+            }
+            mana[gp] += gained;
+        }
+    }
+
+    /**
+     * Goes through the legal actions of the current player of a game, in the order of
+     * {@link LegalActions}, and picks one as {@link GreedyPolicy} does.
+     */
+    private int choose(final int g) {
+        best = 0;
+        bestPriority = -1;
+        ties = 0;
+        int p = currentPlayer[g] - 1;
+        int gp = g * 2 + p;
+
+        for (int i = 0; i < handSize[gp]; i++) {
+            int card = hand[gp * cards + i];
+            if (cardMana[p][card] <= mana[gp]
+                    && rowSize[g * ROWS + rowOf(p, cardKinds[p][card])] < ROW_SIZE) {
+                offer(g, pack(LegalActions.PLACE_CARD, i));
+            }
+        }
+
+        if (bestPriority > AFTER_PLACE) {
+            return best;
+        }
+
+        boolean tankExists = hasTank(g, p == 0 ? GlobalVariables.P_2_FRONT_ROW
+                : GlobalVariables.P_1_FRONT_ROW);
+        for (int x = 0; x < ROWS; x++) {
+            if (isEnemyRow(p, x)) {
+                continue;
+            }
+            int from = (g * ROWS + x) * ROW_SIZE;
+            for (int y = 0; y < rowSize[g * ROWS + x]; y++) {
+                int s = from + y;
+                if (turn[g] <= frozenTurn[s] + 1 || attackedRound[s] == round[g]) {
+                    continue;
+                }
+                offerTargets(g, p, LegalActions.CARD_USES_ATTACK, x, y, true, tankExists);
+                if (kind[s] >= THE_RIPPER) {
+                    offerTargets(g, p, LegalActions.CARD_USES_ABILITY, x, y,
+                            kind[s] != DISCIPLE, tankExists && kind[s] != DISCIPLE);
+                }
+                if (!tankExists) {
+                    offer(g, pack(LegalActions.USE_ATTACK_HERO, x, y, 0, 0));
+                }
+            }
+        }
+
+        if (bestPriority > AFTER_CARDS) {
+            return best;
+        }
+
+        if (heroMana[p] <= mana[gp] && heroAttackedRound[gp] != round[g]) {
+            boolean targetsEnemy = heroKind[p] == LORD_ROYCE || heroKind[p] == EMPRESS_THORINA;
+            for (int x = 0; x < ROWS; x++) {
+                if (isEnemyRow(p, x) == targetsEnemy) {
+                    offer(g, pack(LegalActions.USE_HERO_ABILITY, x));
+                }
+            }
+        }
+
+        offer(g, pack(LegalActions.END_PLAYER_TURN, 0));
+        return best;
+    }
+
+    private static int afterCards() {
+        return Math.max(GreedyPolicy.priorityOf(LegalActions.USE_HERO_ABILITY),
+                GreedyPolicy.priorityOf(LegalActions.END_PLAYER_TURN));
+    }
+
+    private void offerTargets(final int g, final int p, final int command, final int x,
+                              final int y, final boolean targetsEnemy,
+                              final boolean onlyTanks) {
+        for (int tx = 0; tx < ROWS; tx++) {
+            if (isEnemyRow(p, tx) != targetsEnemy) {
+                continue;
+            }
+            int from = (g * ROWS + tx) * ROW_SIZE;
+            for (int ty = 0; ty < rowSize[g * ROWS + tx]; ty++) {
+                if (!onlyTanks || isTank(kind[from + ty])) {
+                    offer(g, pack(command, x, y, tx, ty));
+                }
+            }
+        }
+    }
+
+    private void offer(final int g, final int move) {
+        int priority = GreedyPolicy.priorityOf(move >>> COMMAND_SHIFT);
+        if (priority > bestPriority) {
+            best = move;
+            bestPriority = priority;
+            ties = 1;
+        } else if (priority == bestPriority && nextInt(random, g, ++ties) == 0) {
+            best = move;
+        }
+    }
+
+    private void play(final int g, final int move) {
+        int p = currentPlayer[g] - 1;
+        int gp = g * 2 + p;
+        switch (move >>> COMMAND_SHIFT) {
+            case LegalActions.PLACE_CARD -> placeCard(g, p, move & OPERAND_MASK);
+            case LegalActions.CARD_USES_ATTACK -> {
+                int attacker = slot(g, field(move, ATTACKER_X), field(move, ATTACKER_Y));
+                int attacked = slot(g, field(move, ATTACKED_X), field(move, ATTACKED_Y));
+                health[attacked] -= attack[attacker];
+                attackedRound[attacker] = round[g];
+                if (health[attacked] <= 0) {
+                    removeCard(g, field(move, ATTACKED_X), field(move, ATTACKED_Y));
+                }
+            }
+            case LegalActions.CARD_USES_ABILITY -> {
+                int attacker = slot(g, field(move, ATTACKER_X), field(move, ATTACKER_Y));
+                int attacked = slot(g, field(move, ATTACKED_X), field(move, ATTACKED_Y));
+                useAbility(attacker, attacked);
+                attackedRound[attacker] = round[g];
+                if (health[attacked] <= 0) {
+                    removeCard(g, field(move, ATTACKED_X), field(move, ATTACKED_Y));
+                }
+            }
+            case LegalActions.USE_ATTACK_HERO -> {
+                int attacker = slot(g, field(move, ATTACKER_X), field(move, ATTACKER_Y));
+                int opponent = g * 2 + 1 - p;
+                heroHealth[opponent] -= attack[attacker];
+                attackedRound[attacker] = round[g];
+                if (heroHealth[opponent] <= 0) {
+                    winner[g] = currentPlayer[g];
+                }
+            }
+            case LegalActions.USE_HERO_ABILITY -> {
+                useHeroAbility(g, heroKind[p], move & OPERAND_MASK);
+                heroAttackedRound[gp] = round[g];
+                mana[gp] -= heroMana[p];
+            }
+            default -> {
+                turn[g]++;
+                currentPlayer[g] = currentPlayer[g] == 1 ? 2 : 1;
+                if (currentPlayer[g] == startingPlayer[g]) {
+                    round[g]++;
+                    prepareRound(g);
+                }
+            }
+        }
+    }
+
+    private void placeCard(final int g, final int p, final int handIdx) {
+        int gp = g * 2 + p;
+        int base = gp * cards;
+        int card = hand[base + handIdx];
+        int row = g * ROWS + rowOf(p, cardKinds[p][card]);
+        int s = row * ROW_SIZE + rowSize[row]++;
+        kind[s] = cardKinds[p][card];
+        attack[s] = cardAttack[p][card];
+        health[s] = cardHealth[p][card];
+        frozenTurn[s] = NOT_FROZEN;
+        attackedRound[s] = 0;
+        mana[gp] -= cardMana[p][card];
+        System.arraycopy(hand, base + handIdx + 1, hand, base + handIdx,
+                handSize[gp] - handIdx - 1);
+        handSize[gp]--;
+    }
+
+    private void useAbility(final int attacker, final int attacked) {
+        switch (kind[attacker]) {
+            case THE_RIPPER -> attack[attacked] = Math.max(attack[attacked] - RIPPER_DAMAGE, 0);
+            case MIRAJ -> {
+                int swapped = health[attacked];
+                health[attacked] = health[attacker];
+                health[attacker] = swapped;
+            }
+            case THE_CURSED_ONE -> {
+                int swapped = health[attacked];
+                health[attacked] = attack[attacked];
+                attack[attacked] = swapped;
+            }
+            case DISCIPLE -> health[attacked] += DISCIPLE_HEAL;
+            default -> {
+            }
+        }
+    }
+
+    private void useHeroAbility(final int g, final int hero, final int x) {
+        int from = (g * ROWS + x) * ROW_SIZE;
+        int to = from + rowSize[g * ROWS + x];
+        switch (hero) {
+            case LORD_ROYCE -> Arrays.fill(frozenTurn, from, to, turn[g]);
+            case KING_MUDFACE -> addToRow(health, from, to, 1);
+            case GENERAL_KOCIORAW -> addToRow(attack, from, to, 1);
+            default -> {
+                int strongest = -1;
+                int maxHealth = 0;
+                for (int s = from; s < to; s++) {
+                    if (health[s] > maxHealth) {
+                        maxHealth = health[s];
+                        strongest = s;
+                    }
+                }
+                if (strongest >= 0) {
+                    removeCard(g, x, strongest - from);
+                }
+            }
+        }
+    }
+
+    private static void addToRow(final int[] values, final int from, final int to,
+                                 final int delta) {
+        for (int s = from; s < to; s++) {
+            values[s] += delta;
+        }
+    }
+
+    private void removeCard(final int g, final int x, final int y) {
+        int row = g * ROWS + x;
+        int s = row * ROW_SIZE + y;
+        int moved = rowSize[row] - y - 1;
+        System.arraycopy(kind, s + 1, kind, s, moved);
+        System.arraycopy(attack, s + 1, attack, s, moved);
+        System.arraycopy(health, s + 1, health, s, moved);
+        System.arraycopy(frozenTurn, s + 1, frozenTurn, s, moved);
+        System.arraycopy(attackedRound, s + 1, attackedRound, s, moved);
+        rowSize[row]--;
+    }
+
+    private boolean hasTank(final int g, final int x) {
+        int from = (g * ROWS + x) * ROW_SIZE;
+        for (int s = from; s < from + rowSize[g * ROWS + x]; s++) {
+            if (isTank(kind[s])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTank(final int cardKind) {
+        return cardKind == GOLIATH || cardKind == WARDEN;
+    }
+
+    private static boolean isEnemyRow(final int p, final int x) {
+        if (p == 0) {
+            return x == GlobalVariables.P_2_FRONT_ROW || x == GlobalVariables.P_2_BACK_ROW;
+        }
+        return x == GlobalVariables.P_1_FRONT_ROW || x == GlobalVariables.P_1_BACK_ROW;
+    }
+
+    private static int rowOf(final int p, final int cardKind) {
+        boolean front = isTank(cardKind) || cardKind == THE_RIPPER || cardKind == MIRAJ;
+        if (p == 0) {
+            return front ? GlobalVariables.P_1_FRONT_ROW : GlobalVariables.P_1_BACK_ROW;
+        }
+        return front ? GlobalVariables.P_2_FRONT_ROW : GlobalVariables.P_2_BACK_ROW;
+    }
+
+    private static int slot(final int g, final int x, final int y) {
+        return (g * ROWS + x) * ROW_SIZE + y;
+    }
+
+    private static int pack(final int command, final int operand) {
+        return command << COMMAND_SHIFT | operand;
+    }
+
+    private static int pack(final int command, final int attackerX, final int attackerY,
+                            final int attackedX, final int attackedY) {
+        return command << COMMAND_SHIFT | attackerX << (FIELD_BITS * ATTACKER_X)
+                | attackerY << (FIELD_BITS * ATTACKER_Y) | attackedX << (FIELD_BITS * ATTACKED_X)
+                | attackedY << (FIELD_BITS * ATTACKED_Y);
+    }
+
+    private static int field(final int move, final int field) {
+        return move >>> (FIELD_BITS * field) & FIELD_MASK;
+    }
+
+    /**
+     * The {@code nextInt(bound)} of {@link java.util.Random}, on a seed kept in an array.
+     */
+    private static int nextInt(final long[] seeds, final int idx, final int bound) {
+        int r = next(seeds, idx);
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return (int) ((bound * (long) r) >> INT_BITS);
+        }
+        int u = r;
+        r = u % bound;
+        while (u - r + m < 0) {
+            u = next(seeds, idx);
+            r = u % bound;
+        }
+        return r;
+    }
+
+    private static int next(final long[] seeds, final int idx) {
+        seeds[idx] = (seeds[idx] * MULTIPLIER + ADDEND) & SEED_MASK;
+        return (int) (seeds[idx] >>> (SEED_BITS - INT_BITS));
+    }
+}
@@ -0,0 +1,413 @@
+package org.poo.sim;
+
+import org.poo.fileio.CardInput;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Searches for the deck with the best win rate against a set of opponents, using a genetic
+ * algorithm. A deck is a multiset of cards taken from a pool; its fitness is the fraction
+ * of simulated games it wins with the given hero, every player following the
+ * {@link GreedyPolicy}. The games against an opponent are played as one
+ * {@link BatchSimulator} batch. Simulations are deterministic, so the fitness of a deck is
+ * computed once and cached. The decks of a generation are evaluated in parallel, on one
+ * thread per core, and the search can be checkpointed after every generation and resumed
+ * later. Progress is reported to an optional {@link Listener}.
+ */
+public final class DeckOptimizer {
+    private static final int MAGIC = 0x4757444F;
+    private static final int FORMAT_VERSION = 1;
+    private static final int ELITE = 2;
+    private static final int TOURNAMENT_SIZE = 3;
+    private static final double MUTATION_RATE = 0.1;
+    private static final long SEED_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private final List<CardInput> pool;
+    private final CardInput hero;
+    private final List<Opponent> opponents;
+    private final int deckSize;
+    private final int populationSize;
+    private final int gamesPerOpponent;
+    private final long seed;
+    private final Map<Genome, Double> fitness = new ConcurrentHashMap<>();
+
+    private int generation;
+    private ArrayList<Genome> population;
+    private Listener listener;
+
+    /**
+     * Notified after every generation, on the thread running the search.
+     */
+    public interface Listener {
+        /**
+         * Called once a new generation has been evaluated and checkpointed.
+         *
+         * @param optimizer the optimizer, whose {@link #getGeneration()},
+         *                  {@link #getBestFitness()} and {@link #getEvaluatedCount()}
+         *                  describe the new generation
+         */
+        void generationDone(DeckOptimizer optimizer);
+    }
+
+    /**
+     * An opponent deck, played with its own hero.
+     */
+    public static final class Opponent {
+        private final ArrayList<CardInput> deck;
+        private final CardInput hero;
+
+        /**
+         * Creates an opponent.
+         *
+         * @param deck the cards of the opponent's deck
+         * @param hero the opponent's hero
+         */
+        public Opponent(final ArrayList<CardInput> deck, final CardInput hero) {
+            this.deck = deck;
+            this.hero = hero;
+        }
+    }
+
+    /**
+     * A deck, as the sorted indices of its cards in the pool.
+     */
+    private static final class Genome {
+        private final int[] cards;
+
+        Genome(final int[] cards) {
+            Arrays.sort(cards);
+            this.cards = cards;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Genome && Arrays.equals(cards, ((Genome) other).cards);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(cards);
+        }
+    }
+
+    /**
+     * Creates an optimizer.
+     *
+     * @param pool             the cards decks are built from; a card may appear several
+     *                         times in a deck
+     * @param hero             the hero the evolved decks are played with
+     * @param opponents        the {@link Opponent}s every deck plays against
+     * @param deckSize         the number of cards in a deck
+     * @param populationSize   the number of decks in a generation
+     * @param gamesPerOpponent the number of games played against every opponent, half of
+     *                         them started by each player
+     * @param seed             the seed of the search
+     */
+    public DeckOptimizer(final List<CardInput> pool, final CardInput hero,
+                         final List<Opponent> opponents, final int deckSize,
+                         final int populationSize, final int gamesPerOpponent, final long seed) {
+        this.pool = pool;
+        this.hero = hero;
+        this.opponents = opponents;
+        this.deckSize = deckSize;
+        this.populationSize = populationSize;
+        this.gamesPerOpponent = gamesPerOpponent;
+        this.seed = seed;
+    }
+
+    /**
+     * Evolves the population until the given number of generations has been produced.
+     * If the checkpoint file exists, the search resumes from it; after every generation,
+     * the initial one included, the file is replaced with the current population and the
+     * cached fitness values.
+     *
+     * @param generations the total number of generations to produce
+     * @param checkpoint  the checkpoint file, or null to run without checkpoints
+     * @return the best deck found
+     * @throws IOException in case of exceptions to reading / writing the checkpoint
+     */
+    public ArrayList<CardInput> run(final int generations, final Path checkpoint)
+            throws IOException {
+        // the population only ever holds a fully evaluated generation
+        population = null;
+        boolean resumed = checkpoint != null && Files.exists(checkpoint);
+        ArrayList<Genome> initial;
+        if (resumed) {
+            initial = load(checkpoint);
+        } else {
+            generation = 0;
+            initial = new ArrayList<>();
+            Random random = random(-1);
+            for (int i = 0; i < populationSize; i++) {
+                initial.add(randomGenome(random));
+            }
+        }
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            population = evaluate(executor, initial);
+            if (checkpoint != null && !resumed) {
+                save(checkpoint);
+            }
+            while (generation < generations) {
+                population = evaluate(executor, breed(random(generation)));
+                generation++;
+                if (checkpoint != null) {
+                    save(checkpoint);
+                }
+                if (listener != null) {
+                    listener.generationDone(this);
+                }
+            }
+        }
+        return toDeck(population.get(0));
+    }
+
+    /**
+     * Gets the win rate of the best deck of the current generation.
+     *
+     * @return the best win rate, between 0 and 1
+     * @throws IllegalStateException if no generation has been evaluated yet
+     */
+    public double getBestFitness() {
+        if (population == null) {
+            throw new IllegalStateException("No generation has been evaluated yet.");
+        }
+        return fitness.get(population.get(0));
+    }
+
+    /**
+     * Gets the number of distinct decks evaluated so far.
+     *
+     * @return the number of cached fitness values
+     */
+    public int getEvaluatedCount() {
+        return fitness.size();
+    }
+
+    /**
+     * Sets the listener notified after every generation.
+     *
+     * @param listener the {@link Listener}, or null to stop reporting progress
+     */
+    public void setListener(final Listener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Gets the number of generations produced so far.
+     *
+     * @return the current generation
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Computes the fitness of every deck of a population not evaluated yet, in parallel,
+     * then sorts the population from the best deck to the worst. Only computed fitness
+     * values are cached, so a failed evaluation leaves no trace of the decks it missed.
+     *
+     * @return the sorted population
+     */
+    private ArrayList<Genome> evaluate(final ExecutorService executor,
+                                      final ArrayList<Genome> candidates) throws IOException {
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        HashSet<Genome> submitted = new HashSet<>();
+        for (Genome genome : candidates) {
+            if (!fitness.containsKey(genome) && submitted.add(genome)) {
+                futures.add(executor.submit(() -> fitness.put(genome, winRate(genome))));
+            }
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while evaluating decks", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to evaluate a deck", e.getCause());
+        }
+        candidates.sort(Comparator.comparingDouble(genome -> -fitness.get(genome)));
+        return candidates;
+    }
+
+    private double winRate(final Genome genome) {
+        BatchSimulator simulator = new BatchSimulator();
+        ArrayList<CardInput> deck = toDeck(genome);
+        int[] startingPlayers = new int[gamesPerOpponent];
+        int[] seeds = new int[gamesPerOpponent];
+        int wins = 0;
+        for (int i = 0; i < opponents.size(); i++) {
+            Opponent opponent = opponents.get(i);
+            for (int j = 0; j < gamesPerOpponent; j++) {
+                startingPlayers[j] = j % 2 + 1;
+                seeds[j] = i * gamesPerOpponent + j;
+            }
+            for (int winner : simulator.play(deck, hero, opponent.deck, opponent.hero,
+                    startingPlayers, seeds)) {
+                if (winner == 1) {
+                    wins++;
+                }
+            }
+        }
+        return (double) wins / (opponents.size() * gamesPerOpponent);
+    }
+
+    /**
+     * Produces the next generation: the best decks are kept as they are, and the others
+     * are children of parents picked by tournament.
+     */
+    private ArrayList<Genome> breed(final Random random) {
+        ArrayList<Genome> next = new ArrayList<>(population.subList(0,
+                Math.min(ELITE, population.size())));
+        while (next.size() < populationSize) {
+            Genome first = tournament(random);
+            Genome second = tournament(random);
+            next.add(crossover(first, second, random));
+        }
+        return next;
+    }
+
+    private Genome tournament(final Random random) {
+        int best = random.nextInt(population.size());
+        for (int i = 1; i < TOURNAMENT_SIZE; i++) {
+            best = Math.min(best, random.nextInt(population.size()));
+        }
+        return population.get(best);
+    }
+
+    /**
+     * Builds a child out of a random half of the cards of both parents, replacing some of
+     * them with random cards of the pool.
+     */
+    private Genome crossover(final Genome first, final Genome second, final Random random) {
+        int[] cards = Arrays.copyOf(first.cards, deckSize * 2);
+        System.arraycopy(second.cards, 0, cards, deckSize, deckSize);
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int aux = cards[i];
+            cards[i] = cards[j];
+            cards[j] = aux;
+        }
+        int[] child = Arrays.copyOf(cards, deckSize);
+        for (int i = 0; i < deckSize; i++) {
+            if (random.nextDouble() < MUTATION_RATE) {
+                child[i] = random.nextInt(pool.size());
+            }
+        }
+        return new Genome(child);
+    }
+
+    private Genome randomGenome(final Random random) {
+        int[] cards = new int[deckSize];
+        for (int i = 0; i < deckSize; i++) {
+            cards[i] = random.nextInt(pool.size());
+        }
+        return new Genome(cards);
+    }
+
+    private ArrayList<CardInput> toDeck(final Genome genome) {
+        ArrayList<CardInput> deck = new ArrayList<>(deckSize);
+        for (int card : genome.cards) {
+            deck.add(pool.get(card));
+        }
+        return deck;
+    }
+
+    /**
+     * Gets the random generator used to breed the given generation, so that a resumed
+     * search makes the same choices as an uninterrupted one.
+     */
+    private Random random(final int forGeneration) {
+        return new Random(seed + forGeneration * SEED_MULTIPLIER);
+    }
+
+    private void save(final Path checkpoint) throws IOException {
+        Path temp = checkpoint.resolveSibling(checkpoint.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(pool.size());
+            out.writeInt(deckSize);
+            out.writeInt(generation);
+            out.writeInt(population.size());
+            for (Genome genome : population) {
+                writeGenome(genome, out);
+            }
+            out.writeInt(fitness.size());
+            for (Map.Entry<Genome, Double> entry : fitness.entrySet()) {
+                writeGenome(entry.getKey(), out);
+                out.writeDouble(entry.getValue());
+            }
+        }
+        Files.move(temp, checkpoint, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a checkpoint, restoring the generation and the cached fitness values.
+     *
+     * @return the population of the checkpoint
+     */
+    private ArrayList<Genome> load(final Path checkpoint) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(checkpoint)))) {
+            if (in.readInt() != MAGIC || in.readByte() != FORMAT_VERSION) {
+                throw new IOException("Not a deck optimizer checkpoint: " + checkpoint);
+            }
+            if (in.readInt() != pool.size() || in.readInt() != deckSize) {
+                throw new IOException("Checkpoint " + checkpoint
+                        + " was made with a different pool or deck size.");
+            }
+            generation = in.readInt();
+            int size = in.readInt();
+            ArrayList<Genome> loaded = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                loaded.add(readGenome(in));
+            }
+            int cached = in.readInt();
+            for (int i = 0; i < cached; i++) {
+                Genome genome = readGenome(in);
+                fitness.put(genome, in.readDouble());
+            }
+            return loaded;
+        }
+    }
+
+    private static void writeGenome(final Genome genome, final DataOutputStream out)
+            throws IOException {
+        for (int card : genome.cards) {
+            out.writeInt(card);
+        }
+    }
+
+    private Genome readGenome(final DataInputStream in) throws IOException {
+        int[] cards = new int[deckSize];
+        for (int i = 0; i < deckSize; i++) {
+            cards[i] = in.readInt();
+        }
+        return new Genome(cards);
+    }
+}
@@ -0,0 +1,47 @@
+package org.poo.sim;
+
+import org.poo.game.Game;
+import org.poo.game.LegalActions;
+
+import java.util.Random;
+
+/**
+ * Built-in policy that plays its cards first, then attacks the enemy hero whenever no tank
+ * stands in the way, then uses card abilities and attacks, then the hero's ability, and
+ * ends the turn only when nothing else is left. Ties are broken at random.
+ */
+public final class GreedyPolicy implements Policy {
+    /**
+     * Priority of every command, indexed by the command codes of {@link LegalActions}.
+     */
+    private static final int[] PRIORITY = {5, 2, 3, 4, 1, 0};
+
+    @Override
+    public int choose(final Game game, final LegalActions actions, final Random random) {
+        int best = 0;
+        int bestPriority = -1;
+        int ties = 0;
+        for (int i = 0; i < actions.size(); i++) {
+            int priority = priorityOf(LegalActions.getCommand(actions.get(i)));
+            if (priority > bestPriority) {
+                best = i;
+                bestPriority = priority;
+                ties = 1;
+            } else if (priority == bestPriority && random.nextInt(++ties) == 0) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the priority of a command; the action chosen is one of the legal actions with the
+     * highest priority.
+     *
+     * @param command the command code, as defined by {@link LegalActions}
+     * @return the priority of the command
+     */
+    static int priorityOf(final int command) {
+        return PRIORITY[command];
+    }
+}
@@ -0,0 +1,22 @@
+package org.poo.sim;
+
+import org.poo.game.Game;
+import org.poo.game.LegalActions;
+
+import java.util.Random;
+
+/**
+ * Chooses the action a simulated player takes in a given state.
+ */
+public interface Policy {
+    /**
+     * Chooses one of the legal actions of the current player.
+     *
+     * @param game    the {@link Game} whose state is inspected
+     * @param actions the {@link LegalActions} generated for the state, with at least one
+     *                action
+     * @param random  the {@link Random} used to break ties
+     * @return the index of the chosen action in {@code actions}
+     */
+    int choose(Game game, LegalActions actions, Random random);
+}
@@ -0,0 +1,86 @@
+package org.poo.sim;
+
+import org.poo.fileio.CardInput;
+import org.poo.fileio.DecksInput;
+import org.poo.fileio.GameInput;
+import org.poo.fileio.StartGameInput;
+import org.poo.game.Game;
+import org.poo.game.LegalActions;
+import org.poo.game.Outcome;
+import org.poo.game.PlayAction;
+import org.poo.game.Stats;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Plays whole games between two decks, with both players driven by a {@link Policy}.
+ * A simulator reuses its buffers between games and must not be shared between threads.
+ */
+public final class Simulator {
+    public static final int DRAW = 0;
+    public static final int MAX_ACTIONS = 5000;
+
+    private final Policy policy;
+    private final LegalActions actions = new LegalActions();
+
+    /**
+     * Creates a simulator whose players both follow the given policy.
+     *
+     * @param policy the {@link Policy} choosing the actions
+     */
+    public Simulator(final Policy policy) {
+        this.policy = policy;
+    }
+
+    /**
+     * Plays a game until one of the heroes is killed, or until {@link #MAX_ACTIONS}
+     * actions have been played.
+     *
+     * @param playerOneDeck  the deck of the first player
+     * @param playerOneHero  the hero of the first player
+     * @param playerTwoDeck  the deck of the second player
+     * @param playerTwoHero  the hero of the second player
+     * @param startingPlayer the player starting the game, 1 or 2
+     * @param seed           the seed used to shuffle the decks and to break ties
+     * @return the index of the winner, or {@link #DRAW} if the game did not end
+     */
+    public int play(final ArrayList<CardInput> playerOneDeck, final CardInput playerOneHero,
+                    final ArrayList<CardInput> playerTwoDeck, final CardInput playerTwoHero,
+                    final int startingPlayer, final int seed) {
+        StartGameInput startGame = new StartGameInput();
+        startGame.setPlayerOneHero(playerOneHero);
+        startGame.setPlayerTwoHero(playerTwoHero);
+        startGame.setStartingPlayer(startingPlayer);
+        startGame.setShuffleSeed(seed);
+        GameInput gameInput = new GameInput();
+        gameInput.setStartGame(startGame);
+
+        Stats stats = new Stats();
+        Game game = new Game(stats);
+        game.prepareGame(decks(playerOneDeck), decks(playerTwoDeck), gameInput, 0);
+        game.startGame();
+
+        Random random = new Random(seed);
+        for (int i = 0; i < MAX_ACTIONS && actions.generate(game) > 0; i++) {
+            int move = actions.get(policy.choose(game, actions, random));
+            Outcome outcome = new PlayAction(LegalActions.toActionsInput(move)).play(game, stats);
+            if (outcome == Outcome.PLAYER_ONE_WON) {
+                return 1;
+            } else if (outcome == Outcome.PLAYER_TWO_WON) {
+                return 2;
+            }
+        }
+        return DRAW;
+    }
+
+    private static DecksInput decks(final ArrayList<CardInput> deck) {
+        DecksInput decks = new DecksInput();
+        decks.setNrDecks(1);
+        decks.setNrCardsInDeck(deck.size());
+        ArrayList<ArrayList<CardInput>> list = new ArrayList<>();
+        list.add(deck);
+        decks.setDecks(list);
+        return decks;
+    }
+}